@@ -0,0 +1,46 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+// Runs the service benchmarks once per thread count with the GC profiler, which reports the
+// allocation rate (gc.alloc.rate.norm = bytes per operation) next to each score.
+//
+//   java -cp <classpath> benchmark.BenchmarkRunner [include regex] [thread counts, e.g. 1,2,4,8]
+//
+// Room and reservation counts are JMH parameters; narrow them with -Dbenchmark.rooms=1000,10000
+// and -Dbenchmark.reservations=10000.
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "benchmark\\..*Benchmark";
+        int[] threadCounts = Arrays.stream((args.length > 1 ? args[1] : "1,2,4").split(","))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        for (int threads : threadCounts) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .result("benchmark-results-" + threads + "-threads.json")
+                    .resultFormat(ResultFormatType.JSON);
+            String rooms = System.getProperty("benchmark.rooms");
+            if (Objects.nonNull(rooms)) {
+                options.param("roomCount", rooms.split(","));
+            }
+            String reservations = System.getProperty("benchmark.reservations");
+            if (Objects.nonNull(reservations)) {
+                options.param("reservationCount", reservations.split(","));
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
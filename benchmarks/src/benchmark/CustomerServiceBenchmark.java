@@ -0,0 +1,52 @@
+package benchmark;
+
+import model.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerServiceBenchmark {
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        final int thread = THREADS.incrementAndGet();
+        final SplittableRandom random = new SplittableRandom(thread);
+        int added;
+    }
+
+    @Benchmark
+    public void addCustomer(HotelState hotel, ThreadState thread) {
+        hotel.customerService.addCustomer("new" + thread.thread + "-" + thread.added++ + "@hotel.com", "New", "Guest");
+    }
+
+    @Benchmark
+    public Optional<Customer> getCustomer(HotelState hotel, ThreadState thread) {
+        // Looks up by the raw email string, as HotelResource does
+        return hotel.customerService.getCustomer(hotel.customers[thread.random.nextInt(hotel.customers.length)].email());
+    }
+
+    // Front-desk search: "Number123" matches Number123 and Number1230..Number1239 and so on
+    @Benchmark
+    public List<Customer> findCustomersByLastNamePrefix(HotelState hotel, ThreadState thread) {
+        return hotel.customerService.findCustomersByLastNamePrefix("number" + thread.random.nextInt(1000), 10);
+    }
+}
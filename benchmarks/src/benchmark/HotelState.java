@@ -0,0 +1,70 @@
+package benchmark;
+
+import model.Customer;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import service.customer.CustomerService;
+import service.reservation.ReservationService;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+// Populates the service singletons once per fork; every parameter combination runs in its own fork
+@State(Scope.Benchmark)
+public class HotelState {
+
+    static final int CUSTOMERS_PER_RESERVATION = 10;
+    static final int BOOKING_WINDOW_DAYS = 365;
+
+    @Param({"1000", "10000", "100000"})
+    public int roomCount;
+
+    @Param({"10000", "100000", "1000000"})
+    public int reservationCount;
+
+    public ReservationService reservationService;
+    public CustomerService customerService;
+    public IRoom[] rooms;
+    public Customer[] customers;
+    public int firstDay;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        reservationService = ReservationService.getReservationServiceInstance();
+        customerService = CustomerService.getCustomerServiceInstance();
+        firstDay = Math.toIntExact(LocalDate.now().toEpochDay());
+
+        rooms = new IRoom[roomCount];
+        for (int i = 0; i < roomCount; i++) {
+            rooms[i] = new Room("R" + i, 50.0 + (i % 20) * 10, i % 3 == 0 ? RoomType.DOUBLE : RoomType.SINGLE);
+            reservationService.addRoom(rooms[i]);
+        }
+
+        customers = new Customer[Math.max(1, reservationCount / CUSTOMERS_PER_RESERVATION)];
+        for (int i = 0; i < customers.length; i++) {
+            String email = "guest" + i + "@hotel.com";
+            customerService.addCustomer(email, "Guest", "Number" + i);
+            customers[i] = customerService.getCustomer(email).orElseThrow();
+        }
+
+        // Random 1-5 night stays over the next year; conflicting attempts are retried elsewhere
+        SplittableRandom random = new SplittableRandom(42);
+        int booked = 0;
+        int attempts = 0;
+        while (booked < reservationCount && attempts < reservationCount * 4) {
+            attempts++;
+            int checkIn = firstDay + random.nextInt(BOOKING_WINDOW_DAYS);
+            IRoom room = rooms[random.nextInt(roomCount)];
+            Customer customer = customers[random.nextInt(customers.length)];
+            if (reservationService.reserveARoom(customer, room, checkIn, checkIn + 1 + random.nextInt(5)).isPresent()) {
+                booked++;
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package benchmark;
+
+import api.http.HotelHttpServer;
+import model.Room;
+import model.RoomType;
+import service.customer.CustomerService;
+import service.reservation.ReservationService;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Closed-loop load against an in-process HotelHttpServer on an ephemeral port: every client sends its
+// next request as soon as the previous one answers. The mix is 80% room searches, 15% reservation
+// lookups and 5% bookings. Prints client-side percentiles and the server's own latency summary.
+//
+//   java -cp <classpath> benchmark.HttpLoadTest [clients] [seconds] [rooms]
+public class HttpLoadTest {
+
+    private static final int CUSTOMERS = 10_000;
+    private static final int BOOKING_WINDOW_DAYS = 365;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int rooms = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        ReservationService reservationService = ReservationService.getReservationServiceInstance();
+        CustomerService customerService = CustomerService.getCustomerServiceInstance();
+        for (int i = 0; i < rooms; i++) {
+            reservationService.addRoom(new Room("R" + i, 50.0 + (i % 20) * 10, i % 3 == 0 ? RoomType.DOUBLE : RoomType.SINGLE));
+        }
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerService.addCustomer("guest" + i + "@hotel.com", "Guest", "Number" + i);
+        }
+
+        try (HotelHttpServer server = HotelHttpServer.start(new InetSocketAddress("127.0.0.1", 0));
+             HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+             ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            String base = "http://127.0.0.1:" + server.getAddress().getPort();
+            long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                long seed = c;
+                results.add(clientThreads.submit(() -> runClient(client, base, rooms, seed, deadline)));
+            }
+
+            long[] latencies = results.stream().map(HttpLoadTest::join).flatMapToLong(Arrays::stream).sorted().toArray();
+            System.out.printf("%d clients, %d requests in %d s (%.0f req/s)%n", clients, latencies.length, seconds,
+                    latencies.length / (double) seconds);
+            System.out.printf("client p50 %d us, p99 %d us, p99.9 %d us, max %d us%n", percentile(latencies, 50),
+                    percentile(latencies, 99), percentile(latencies, 99.9), latencies.length > 0 ? latencies[latencies.length - 1] : 0);
+            System.out.println("server " + server.latencySummary());
+        }
+    }
+
+    private static long[] runClient(HttpClient client, String base, int rooms, long seed, long deadline) throws Exception {
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDate today = LocalDate.now();
+        long[] latencies = new long[1024];
+        int count = 0;
+        while (System.nanoTime() < deadline) {
+            LocalDate checkIn = today.plusDays(random.nextInt(BOOKING_WINDOW_DAYS));
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(5));
+            String email = "guest" + random.nextInt(CUSTOMERS) + "@hotel.com";
+            int kind = random.nextInt(100);
+            HttpRequest request;
+            if (kind < 80) {
+                request = HttpRequest.newBuilder(URI.create(base + "/rooms?checkIn=" + checkIn + "&checkOut=" + checkOut)).build();
+            } else if (kind < 95) {
+                request = HttpRequest.newBuilder(URI.create(base + "/customers/" + email + "/reservations")).build();
+            } else {
+                String body = String.format("{\"email\":\"%s\",\"roomNumber\":\"R%d\",\"checkIn\":\"%s\",\"checkOut\":\"%s\"}",
+                        email, random.nextInt(rooms), checkIn, checkOut);
+                request = HttpRequest.newBuilder(URI.create(base + "/reservations"))
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            }
+            long started = System.nanoTime();
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = (System.nanoTime() - started) / 1000;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static long[] join(Future<long[]> result) {
+        try {
+            return result.get();
+        } catch (Exception e) {
+            throw new IllegalStateException("Load client failed", e);
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(sorted.length * percentile / 100.0) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,57 @@
+package benchmark;
+
+import Utils.DateUtils;
+import api.HotelResource;
+import model.AlternativeStay;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import service.HotelReservationProcess;
+import service.ReservationProcess;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationProcessBenchmark {
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final SplittableRandom random = new SplittableRandom();
+        ReservationProcess process;
+        Date[] days;
+
+        @Setup(Level.Trial)
+        public void setUp(HotelState hotel) {
+            // The recommendation path logs every step at INFO; console output would dominate the measurement
+            Logger.getLogger(ReservationProcess.class.getName()).setLevel(java.util.logging.Level.WARNING);
+            process = new HotelReservationProcess(HotelResource.getHotelResourceInstance(), new Scanner(""));
+            days = new Date[HotelState.BOOKING_WINDOW_DAYS + 3];
+            for (int i = 0; i < days.length; i++) {
+                days[i] = DateUtils.toDate(hotel.firstDay + i);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<AlternativeStay> findRecommendedStays(ThreadState thread) {
+        int checkIn = thread.random.nextInt(HotelState.BOOKING_WINDOW_DAYS);
+        return thread.process.findRecommendedStays(thread.days[checkIn], thread.days[checkIn + 3]);
+    }
+}
@@ -0,0 +1,89 @@
+package benchmark;
+
+import model.Reservation;
+import model.IRoom;
+import model.RoomFilter;
+import model.RoomType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import service.reservation.StayRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+// The threads book nights far past the default booking window, so the fork widens it
+@Fork(value = 1, jvmArgsAppend = "-Dhotel.booking.futureDays=100000000")
+public class ReservationServiceBenchmark {
+
+    private static final int GROUP_SIZE = 20;
+    private static final RoomFilter CHEAPEST_DOUBLES = new RoomFilter(Set.of(RoomType.DOUBLE), 0, Double.MAX_VALUE, null, 10);
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        final int thread = THREADS.incrementAndGet();
+        final SplittableRandom random = new SplittableRandom(thread);
+        // Each thread books its own nights past the populated window, so bookings do not conflict
+        final int bookingDayOffset = HotelState.BOOKING_WINDOW_DAYS + thread * 100_000;
+        int bookings;
+    }
+
+    @Benchmark
+    public Collection<IRoom> findRooms(HotelState hotel, ThreadState thread) {
+        int checkIn = hotel.firstDay + thread.random.nextInt(HotelState.BOOKING_WINDOW_DAYS);
+        return hotel.reservationService.findRooms(checkIn, checkIn + 3);
+    }
+
+    // "Cheapest 10 DOUBLE rooms"; compare with findRooms, which checks the whole inventory
+    @Benchmark
+    public List<IRoom> findCheapestRooms(HotelState hotel, ThreadState thread) {
+        int checkIn = hotel.firstDay + thread.random.nextInt(HotelState.BOOKING_WINDOW_DAYS);
+        return hotel.reservationService.findRooms(CHEAPEST_DOUBLES, checkIn, checkIn + 3);
+    }
+
+    @Benchmark
+    public Optional<Reservation> reserveARoom(HotelState hotel, ThreadState thread) {
+        int booking = thread.bookings++;
+        IRoom room = hotel.rooms[booking % hotel.rooms.length];
+        int checkIn = hotel.firstDay + thread.bookingDayOffset + booking / hotel.rooms.length;
+        return hotel.reservationService.reserveARoom(
+                hotel.customers[thread.random.nextInt(hotel.customers.length)], room, checkIn, checkIn + 1);
+    }
+
+    // A tour-operator block of consecutive rooms for one night; compare per room with reserveARoom
+    @Benchmark
+    @OperationsPerInvocation(GROUP_SIZE)
+    public Optional<List<Reservation>> reserveRooms(HotelState hotel, ThreadState thread) {
+        List<StayRequest> stays = new ArrayList<>(GROUP_SIZE);
+        for (int i = 0; i < GROUP_SIZE; i++) {
+            int booking = thread.bookings++;
+            int checkIn = hotel.firstDay + thread.bookingDayOffset + booking / hotel.rooms.length;
+            stays.add(new StayRequest(hotel.rooms[booking % hotel.rooms.length], checkIn, checkIn + 1));
+        }
+        return hotel.reservationService.reserveRooms(hotel.customers[thread.random.nextInt(hotel.customers.length)], stays);
+    }
+
+    @Benchmark
+    public Collection<Reservation> getCustomersReservation(HotelState hotel, ThreadState thread) {
+        return hotel.reservationService.getCustomersReservation(hotel.customers[thread.random.nextInt(hotel.customers.length)]);
+    }
+}
@@ -0,0 +1,110 @@
+package benchmark;
+
+import model.Customer;
+import model.IRoom;
+import model.Reservation;
+import model.Room;
+import model.RoomType;
+import service.customer.CustomerService;
+import service.metrics.HotelMetrics;
+import service.reservation.ReservationService;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Memory and GC cost of one reservation store: books the given number of back-to-back stays, then
+// prints heap and off-heap bytes per reservation, the collections the load caused and the pause of a
+// full collection with every reservation live. Run once per store in a fresh JVM and compare:
+//
+//   java -cp <classpath> benchmark.ReservationStoreFootprint [heap|offheap] [reservations] [rooms]
+public class ReservationStoreFootprint {
+
+    private static final int CUSTOMERS = 100_000;
+    private static final int BATCH = 10_000;
+
+    public static void main(String[] args) {
+        String store = args.length > 0 ? args[0] : "heap";
+        int reservationCount = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        int roomCount = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        // Read when ReservationService is initialized, so they have to be set first. Each room's stays
+        // follow each other, up to 7 nights apart, which can run past the default booking window.
+        System.setProperty("hotel.reservationStore", store);
+        System.setProperty("hotel.booking.futureDays", String.valueOf(7L * (reservationCount / roomCount + 1) + 1));
+
+        ReservationService reservationService = ReservationService.getReservationServiceInstance();
+        CustomerService customerService = CustomerService.getCustomerServiceInstance();
+        List<IRoom> rooms = new ArrayList<>(roomCount);
+        for (int i = 0; i < roomCount; i++) {
+            rooms.add(new Room("R" + i, 50.0 + (i % 20) * 10, i % 3 == 0 ? RoomType.DOUBLE : RoomType.SINGLE));
+        }
+        reservationService.addRooms(rooms);
+        List<Customer> customers = new ArrayList<>(CUSTOMERS);
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerService.addCustomer("guest" + i + "@hotel.com", "Guest", "Number" + i);
+            customers.add(customerService.getCustomer("guest" + i + "@hotel.com").orElseThrow());
+        }
+
+        long heapBefore = usedHeapAfterGc();
+        long[] gcBefore = gcTotals();
+        long started = System.nanoTime();
+        // Each room's stays follow each other, so every one of them books
+        var random = new SplittableRandom(42);
+        int[] nextCheckIn = new int[roomCount];
+        Arrays.fill(nextCheckIn, (int) LocalDate.now().toEpochDay());
+        List<Reservation> batch = new ArrayList<>(BATCH);
+        for (int n = 0; n < reservationCount; n++) {
+            int room = n % roomCount;
+            int checkIn = nextCheckIn[room];
+            int checkOut = checkIn + 1 + random.nextInt(7);
+            nextCheckIn[room] = checkOut;
+            batch.add(new Reservation(customers.get(random.nextInt(CUSTOMERS)), rooms.get(room), checkIn, checkOut));
+            if (batch.size() == BATCH || n == reservationCount - 1) {
+                reservationService.addReservations(batch);
+                batch.clear();
+            }
+        }
+        double loadSeconds = (System.nanoTime() - started) / 1e9;
+        long[] gcAfterLoad = gcTotals();
+        long heapAfter = usedHeapAfterGc();
+
+        long fullStarted = System.nanoTime();
+        System.gc();
+        double fullGcMillis = (System.nanoTime() - fullStarted) / 1e6;
+
+        Map<String, Long> gauges = HotelMetrics.getMetricsInstance().readGauges();
+        long reservations = reservationService.getReservationCount();
+        System.out.printf("store=%s reservations=%,d rooms=%,d loaded in %.1f s%n", store, reservations, roomCount, loadSeconds);
+        System.out.printf("heap bytes per reservation:     %.1f (calendars included)%n",
+                (heapAfter - heapBefore) / (double) reservations);
+        System.out.printf("store bytes per reservation:    %d (%s)%n", gauges.get("reservationStoreBytesPerReservation"),
+                "offheap".equals(store) ? "off-heap columns" : "estimated heap objects");
+        System.out.printf("GC during load:                 %d collections, %d ms%n",
+                gcAfterLoad[0] - gcBefore[0], gcAfterLoad[1] - gcBefore[1]);
+        System.out.printf("full GC with all stays live:    %.1f ms%n", fullGcMillis);
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // Collections and milliseconds spent in them, summed over every collector
+    private static long[] gcTotals() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(collector.getCollectionCount(), 0);
+            millis += Math.max(collector.getCollectionTime(), 0);
+        }
+        return new long[]{count, millis};
+    }
+}
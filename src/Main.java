@@ -1,11 +1,124 @@
+import api.AdminResource;
+import api.HotelResource;
+import api.http.HotelHttpServer;
 import catalog.MainMenu;
+import model.Customer;
+import service.customer.CustomerService;
+import service.importer.BulkImporter;
+import service.importer.ImportReport;
+import service.persistence.PropertyStores;
+import service.property.PropertyService;
+import service.reservation.ReservationService;
+import service.simulation.DatasetReport;
+import service.simulation.LoadDriver;
+import service.simulation.LoadReport;
+import service.simulation.SyntheticHotel;
+import service.simulation.TrafficMix;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
 
 public class Main {
-    public static void main(String[] args) {
+
+    private static final int PRINTED_REJECTIONS = 20;
+    private static final int DEFAULT_HTTP_PORT = 8080;
+    private static final int SIMULATION_HORIZON_DAYS = 365;
+
+    public static void main(String[] args) throws IOException {
+        // Persistence is enabled by pointing -Dhotel.data.dir at a directory for journals and snapshots;
+        // every property, and the list of properties, is kept there
+        String dataDirectory = System.getProperty("hotel.data.dir");
+        if (Objects.nonNull(dataDirectory)) {
+            PropertyStores store = PropertyStores.open(Path.of(dataDirectory),
+                    PropertyService.getPropertyServiceInstance(),
+                    CustomerService.getCustomerServiceInstance(),
+                    Long.getLong("hotel.snapshot.intervalMinutes", 15));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+
+        // Bulk import mode: import rooms <file> customers <file> reservations <file>, in that order
+        if (args.length > 0 && "import".equals(args[0])) {
+            runImport(args);
+            return;
+        }
+
+        // Server mode: serve [port] exposes the hotel API as JSON over HTTP until the process is stopped
+        if (args.length > 0 && "serve".equals(args[0])) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_HTTP_PORT;
+            HotelHttpServer server = HotelHttpServer.start(new InetSocketAddress(port));
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            return;
+        }
+
+        // Simulation mode: simulate [rooms] [customers] [reservations] [threads] [seconds] generates a
+        // synthetic hotel (unless the data directory already holds one) and replays mixed traffic against it
+        if (args.length > 0 && "simulate".equals(args[0])) {
+            runSimulation(args);
+            return;
+        }
+
         while (true) {
             if (!MainMenu.displayMainMenu()) {
                 break;
             }
         }
     }
-}
\ No newline at end of file
+
+    private static void runSimulation(String[] args) {
+        int rooms = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        int customers = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        int reservations = args.length > 3 ? Integer.parseInt(args[3]) : 100_000;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors() * 4;
+        int seconds = args.length > 5 ? Integer.parseInt(args[5]) : 30;
+        long seed = Long.getLong("hotel.simulation.seed", 42);
+
+        ReservationService reservationService = ReservationService.getReservationServiceInstance();
+        CustomerService customerService = CustomerService.getCustomerServiceInstance();
+        if (reservationService.getRoomCount() == 0) {
+            DatasetReport dataset = new SyntheticHotel(reservationService, customerService, SIMULATION_HORIZON_DAYS)
+                    .generate(rooms, customers, reservations, seed);
+            System.out.println(dataset.summary());
+        }
+
+        List<String> emails = AdminResource.getAdminResourceInstance().getAllCustomers().stream()
+                .map(Customer::email)
+                .toList();
+        LoadReport report = new LoadDriver(HotelResource.getHotelResourceInstance(), emails, SIMULATION_HORIZON_DAYS)
+                .run(threads, Duration.ofSeconds(seconds), TrafficMix.DEFAULT, seed);
+        System.out.print(report.summary());
+        System.out.print(AdminResource.getAdminResourceInstance().getMetricsReport());
+    }
+
+    private static void runImport(String[] args) throws IOException {
+        if (args.length % 2 != 1) {
+            System.out.println("Usage: import [rooms|customers|reservations] <file> ...");
+            return;
+        }
+        var importer = new BulkImporter(ReservationService.getReservationServiceInstance(),
+                CustomerService.getCustomerServiceInstance());
+        for (int i = 1; i < args.length; i += 2) {
+            Path file = Path.of(args[i + 1]);
+            ImportReport report = switch (args[i]) {
+                case "rooms" -> importer.importRooms(file);
+                case "customers" -> importer.importCustomers(file);
+                case "reservations" -> importer.importReservations(file);
+                default -> throw new IllegalArgumentException("Unknown import kind: " + args[i]);
+            };
+            System.out.println(report.summary());
+            report.rejections().stream()
+                    .limit(PRINTED_REJECTIONS)
+                    .forEach(rejection -> System.out.printf("  line %d: %s%n", rejection.lineNumber(), rejection.reason()));
+        }
+    }
+}
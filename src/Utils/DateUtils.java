@@ -0,0 +1,82 @@
+package Utils;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+// Conversions between the public Date/LocalDate API and the int epoch days used internally for stays
+public class DateUtils {
+
+    // Returned by parseEpochDay for text that is not a valid date
+    public static final int INVALID_DAY = Integer.MIN_VALUE;
+
+    private DateUtils() {}
+
+    public static int toEpochDay(Date date) {
+        return toEpochDay(date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
+    }
+
+    public static int toEpochDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    public static LocalDate toLocalDate(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    public static Date toDate(int epochDay) {
+        return Date.from(toLocalDate(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    // Parses MM/dd/yyyy (the format the menus use) or ISO yyyy-MM-dd straight to an epoch day,
+    // without a formatter or any intermediate objects
+    public static int parseEpochDay(CharSequence text) {
+        int year;
+        int month;
+        int day;
+        if (text.length() != 10) {
+            return INVALID_DAY;
+        }
+        if (text.charAt(2) == '/' && text.charAt(5) == '/') {
+            month = digits(text, 0, 2);
+            day = digits(text, 3, 5);
+            year = digits(text, 6, 10);
+        } else if (text.charAt(4) == '-' && text.charAt(7) == '-') {
+            year = digits(text, 0, 4);
+            month = digits(text, 5, 7);
+            day = digits(text, 8, 10);
+        } else {
+            return INVALID_DAY;
+        }
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID_DAY;
+        }
+        // Days from civil date, counting years from March so the leap day comes last
+        int shiftedYear = month <= 2 ? year - 1 : year;
+        int era = shiftedYear / 400;
+        int yearOfEra = shiftedYear - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int digits(CharSequence text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+}
@@ -4,28 +4,55 @@ import contains.PatternConstants;
 import model.IRoom;
 import validation.Validation;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
 import java.util.Collection;
+import java.util.Formatter;
+import java.util.Iterator;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 public class DisplayUtils {
+
+    private static final int OUTPUT_BUFFER_CHARS = 64 * 1024;
+
+    public static final BiConsumer<Formatter, IRoom> ROOM_PRINTER = (out, room) ->
+            out.format("Room Number: %s%nPrice: %.2f%nType: %s%nAvailable: %b",
+                    room.getRoomNumber(), room.getRoomPrice(), room.getRoomType(), room.isFree());
+
     public static <T> void displayCollection(String title, Collection<T> collection, Function<T, String> formatter, String separator) {
         if (Validation.isCollectionEmpty(collection)) {
             System.out.println("No items found.");
         } else {
-            System.out.println(title);
-            System.out.println(PatternConstants.SEPARATOR);
-            String formattedItems = collection.stream()
-                    .map(formatter)
-                    .collect(Collectors.joining(separator + "\n"));
-            System.out.println(formattedItems);
-            System.out.println(PatternConstants.SEPARATOR);
+            displayAll(title, collection.iterator(), (out, item) -> out.format("%s", formatter.apply(item)), separator);
         }
     }
 
+    // Items are pulled one at a time and formatted straight into a buffered writer, so printing a
+    // listing never holds more than the buffer, however many items the source produces
+    public static <T> void displayAll(String title, Iterator<T> items, BiConsumer<Formatter, T> printer, String separator) {
+        if (!items.hasNext()) {
+            System.out.println("No items found.");
+            return;
+        }
+        System.out.flush();
+        // Not closed: that would close System.out
+        Formatter out = new Formatter(new BufferedWriter(new OutputStreamWriter(System.out), OUTPUT_BUFFER_CHARS));
+        out.format("%s%n%s%n", title, PatternConstants.SEPARATOR);
+        printer.accept(out, items.next());
+        while (items.hasNext()) {
+            out.format("%n%s%n", separator);
+            printer.accept(out, items.next());
+        }
+        out.format("%n%s%n", PatternConstants.SEPARATOR);
+        out.flush();
+    }
+
     public static void browseRooms(Collection<IRoom> rooms) {
-        displayCollection("Available Rooms:", rooms, room ->
-                String.format("Room Number: %s%nPrice: %.2f%nType: %s%nAvailable: %b",
-                        room.getRoomNumber(), room.getRoomPrice(), room.getRoomType(), room.isFree()), PatternConstants.SEPARATOR);
+        if (Validation.isCollectionEmpty(rooms)) {
+            System.out.println("No items found.");
+        } else {
+            displayAll("Available Rooms:", rooms.iterator(), ROOM_PRINTER, PatternConstants.SEPARATOR);
+        }
     }
 }
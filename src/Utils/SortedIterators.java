@@ -0,0 +1,53 @@
+package Utils;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+public class SortedIterators {
+
+    // Lazily merges two iterators that are each sorted by order; when both hold an equal element
+    // only the one from preferred is returned
+    public static <T> Iterator<T> mergeDistinct(Iterator<T> preferred, Iterator<T> other, Comparator<? super T> order) {
+        return new Iterator<>() {
+            private T nextPreferred = preferred.hasNext() ? preferred.next() : null;
+            private T nextOther = other.hasNext() ? other.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return Objects.nonNull(nextPreferred) || Objects.nonNull(nextOther);
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (Objects.isNull(nextOther)) {
+                    return takePreferred();
+                }
+                if (Objects.isNull(nextPreferred)) {
+                    return takeOther();
+                }
+                int comparison = order.compare(nextPreferred, nextOther);
+                if (comparison == 0) {
+                    takeOther();
+                }
+                return comparison <= 0 ? takePreferred() : takeOther();
+            }
+
+            private T takePreferred() {
+                T item = nextPreferred;
+                nextPreferred = preferred.hasNext() ? preferred.next() : null;
+                return item;
+            }
+
+            private T takeOther() {
+                T item = nextOther;
+                nextOther = other.hasNext() ? other.next() : null;
+                return item;
+            }
+        };
+    }
+}
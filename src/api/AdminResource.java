@@ -1,22 +1,39 @@
 package api;
 
+import Utils.DateUtils;
 import Utils.DisplayUtils;
 import contains.PatternConstants;
 import model.Customer;
 import model.IRoom;
+import model.OccupancyStats;
+import model.Page;
+import model.Reservation;
+import model.RoomType;
 import service.customer.CustomerService;
+import service.metrics.HotelMetrics;
+import service.metrics.Operation;
+import service.property.PropertyService;
 import service.reservation.ReservationService;
 import validation.Validation;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 
 public class AdminResource {
 
     private static final AdminResource ADMIN_RESOURCE_SINGLETON = new AdminResource();
+    // Longest range an occupancy report covers, so a per-day report stays at a few thousand entries
+    private static final long MAX_OCCUPANCY_DAYS = 3660;
 
     private final CustomerService customerService = CustomerService.getCustomerServiceInstance();
     private final ReservationService reservationService = ReservationService.getReservationServiceInstance();
+    private final PropertyService propertyService = PropertyService.getPropertyServiceInstance();
+    private final HotelMetrics metrics = HotelMetrics.getMetricsInstance();
 
     private AdminResource() {}
 
@@ -26,23 +43,151 @@ public class AdminResource {
 
     public void addRoom(List<IRoom> rooms) {
         if (Validation.anyEmptyOrNull(rooms, "Room list must not be null or empty.")) {
-            rooms.forEach(reservationService::addRoom);
+            long started = metrics.start();
+            try {
+                rooms.forEach(reservationService::addRoom);
+            } finally {
+                metrics.record(Operation.ADD_ROOM, started);
+            }
             System.out.println("Rooms have been successfully added.");
         }
     }
 
+    // False when the property already exists
+    public boolean addProperty(String propertyId) {
+        return propertyService.addProperty(propertyId);
+    }
+
+    public List<String> getProperties() {
+        return propertyService.getPropertyIds();
+    }
+
+    public void addRoom(String propertyId, List<IRoom> rooms) {
+        ReservationService shard = propertyService.requireShard(propertyId);
+        if (Validation.anyEmptyOrNull(rooms, "Room list must not be null or empty.")) {
+            long started = metrics.start();
+            try {
+                rooms.forEach(shard::addRoom);
+            } finally {
+                metrics.record(Operation.ADD_ROOM, started);
+            }
+        }
+    }
+
     public Collection<IRoom> getAllRooms() {
-        Collection<IRoom> allRooms = reservationService.getAllRooms();
-        DisplayUtils.displayCollection("Available Rooms:", allRooms, room ->
-                String.format("Room Number: %s%nPrice: %.2f%nType: %s%nAvailable: %b",
-                        room.getRoomNumber(), room.getRoomPrice(), room.getRoomType(), room.isFree()), PatternConstants.SEPARATOR);
-        return allRooms;
+        long started = metrics.start();
+        try {
+            return reservationService.getAllRooms();
+        } finally {
+            metrics.record(Operation.GET_ALL_ROOMS, started);
+        }
     }
 
     public Collection<Customer> getAllCustomers() {
-        Collection<Customer> allCustomers = customerService.getAllCustomers();
-        DisplayUtils.displayCollection("Customers List:", allCustomers, Customer::toString, PatternConstants.SEPARATOR);
-        return allCustomers;
+        long started = metrics.start();
+        try {
+            return customerService.getAllCustomers();
+        } finally {
+            metrics.record(Operation.GET_ALL_CUSTOMERS, started);
+        }
+    }
+
+    public Page<IRoom> getRoomsPage(String cursor, int pageSize) {
+        long started = metrics.start();
+        try {
+            return reservationService.getRoomsPage(cursor, pageSize);
+        } finally {
+            metrics.record(Operation.GET_ROOMS_PAGE, started);
+        }
+    }
+
+    public Page<Customer> getCustomersPage(String cursor, int pageSize) {
+        long started = metrics.start();
+        try {
+            return customerService.getCustomersPage(cursor, pageSize);
+        } finally {
+            metrics.record(Operation.GET_CUSTOMERS_PAGE, started);
+        }
+    }
+
+    public Page<Reservation> getReservationsPage(String cursor, int pageSize) {
+        long started = metrics.start();
+        try {
+            return reservationService.getReservationsPage(cursor, pageSize);
+        } finally {
+            metrics.record(Operation.GET_RESERVATIONS_PAGE, started);
+        }
+    }
+
+    public List<Customer> findCustomersByEmailPrefix(String emailPrefix, int limit) {
+        long started = metrics.start();
+        try {
+            return customerService.findCustomersByEmailPrefix(emailPrefix, limit);
+        } finally {
+            metrics.record(Operation.FIND_CUSTOMERS_BY_PREFIX, started);
+        }
+    }
+
+    public List<Customer> findCustomersByLastNamePrefix(String lastNamePrefix, int limit) {
+        long started = metrics.start();
+        try {
+            return customerService.findCustomersByLastNamePrefix(lastNamePrefix, limit);
+        } finally {
+            metrics.record(Operation.FIND_CUSTOMERS_BY_PREFIX, started);
+        }
+    }
+
+    // Occupancy and revenue of the nights [from, to); a null room type covers every type
+    public OccupancyStats getOccupancyStats(LocalDate from, LocalDate to, RoomType roomType) {
+        checkRange(from, to);
+        long started = metrics.start();
+        try {
+            return reservationService.getOccupancyStats(roomType, DateUtils.toEpochDay(from), DateUtils.toEpochDay(to));
+        } finally {
+            metrics.record(Operation.GET_OCCUPANCY_STATS, started);
+        }
+    }
+
+    // One entry per night of [from, to)
+    public List<OccupancyStats> getDailyOccupancy(LocalDate from, LocalDate to, RoomType roomType) {
+        checkRange(from, to);
+        List<OccupancyStats> days = new ArrayList<>();
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            days.add(getOccupancyStats(day, day.plusDays(1), roomType));
+        }
+        return days;
+    }
+
+    // One entry per calendar month from the first month to the last, both included
+    public List<OccupancyStats> getMonthlyOccupancy(YearMonth firstMonth, YearMonth lastMonth, RoomType roomType) {
+        if (Objects.isNull(firstMonth) || Objects.isNull(lastMonth) || firstMonth.isAfter(lastMonth)) {
+            throw new IllegalArgumentException("Invalid month range.");
+        }
+        checkRange(firstMonth.atDay(1), lastMonth.plusMonths(1).atDay(1));
+        List<OccupancyStats> months = new ArrayList<>();
+        for (YearMonth month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            months.add(getOccupancyStats(month.atDay(1), month.plusMonths(1).atDay(1), roomType));
+        }
+        return months;
+    }
+
+    // Per-operation latencies and counts, then the gauges, as a fixed-width table
+    public String getMetricsReport() {
+        return metrics.dump();
+    }
+
+    public void displayMetrics() {
+        System.out.print(metrics.dump());
+    }
+
+    public void displayAllRooms() {
+        DisplayUtils.displayAll("Available Rooms:", reservationService.streamAllRooms().iterator(),
+                DisplayUtils.ROOM_PRINTER, PatternConstants.SEPARATOR);
+    }
+
+    public void displayAllCustomers() {
+        DisplayUtils.displayAll("Customers List:", customerService.streamAllCustomers().iterator(),
+                (out, customer) -> out.format("%s", customer), PatternConstants.SEPARATOR);
     }
 
     public void displayAllReservations() {
@@ -50,4 +195,12 @@ public class AdminResource {
         reservationService.printAllReservation();
     }
 
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (Objects.isNull(from) || Objects.isNull(to) || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Invalid start or end date.");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_OCCUPANCY_DAYS) {
+            throw new IllegalArgumentException("Occupancy reports cover at most " + MAX_OCCUPANCY_DAYS + " days.");
+        }
+    }
 }
@@ -1,25 +1,62 @@
 package api;
 
+import Utils.DateUtils;
+import model.AlternativeStay;
 import model.Customer;
 import model.Reservation;
 import model.IRoom;
+import model.PropertyRoom;
+import model.RoomFilter;
+import model.RoomRequest;
+import model.RoomType;
 import service.customer.CustomerService;
+import service.metrics.HotelMetrics;
+import service.metrics.Operation;
+import service.property.PropertyService;
 import service.reservation.ReservationService;
+import service.reservation.StayRequest;
 import validation.Validation;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
+// The *Async variants run the blocking call on the async executor, one virtual thread per call by
+// default, so callers never park a platform thread. Identical searches that are in flight at the same
+// time share one computation; each caller gets its own copy of the shared future.
 public class HotelResource {
 
     private static final HotelResource HOTEL_RESOURCE_SINGLETON = new HotelResource();
 
+    private record Stay(int checkInDay, int checkOutDay) {
+    }
+
     private final CustomerService customerService = CustomerService.getCustomerServiceInstance();
     private final ReservationService reservationService = ReservationService.getReservationServiceInstance();
+    private final PropertyService propertyService = PropertyService.getPropertyServiceInstance();
+    private final HotelMetrics metrics = HotelMetrics.getMetricsInstance();
+    private final ConcurrentMap<Stay, CompletableFuture<Collection<IRoom>>> searchesInFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalescedSearches = new LongAdder();
+    private volatile Executor asyncExecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("hotel-async-", 0).factory());
 
     private HotelResource() {
+        metrics.registerGauge("coalescedSearches", coalescedSearches::sum);
+        metrics.registerGauge("searchesInFlight", searchesInFlight::size);
     }
 
     public static HotelResource getHotelResourceInstance() {
@@ -27,12 +64,45 @@ public class HotelResource {
     }
 
     public Optional<Customer> getCustomer(String email) {
-        var trimmedEmail = Optional.ofNullable(email)
-                .map(String::trim)
-                .filter(e -> !e.isEmpty())
-                .map(String::toLowerCase);
+        // CustomerService normalizes the email; only a missing one is screened out here
+        if (Objects.isNull(email) || email.isBlank()) {
+            return Optional.empty();
+        }
+        long started = metrics.start();
+        try {
+            return customerService.getCustomer(email);
+        } finally {
+            metrics.record(Operation.GET_CUSTOMER, started);
+        }
+    }
+
+    public Optional<IRoom> getRoom(String roomNumber) {
+        if (Objects.isNull(roomNumber) || roomNumber.isBlank()) {
+            return Optional.empty();
+        }
+        long started = metrics.start();
+        try {
+            return reservationService.getRoom(roomNumber.trim());
+        } finally {
+            metrics.record(Operation.GET_ROOM, started);
+        }
+    }
+
+    public Optional<IRoom> getRoom(String propertyId, String roomNumber) {
+        if (Objects.isNull(roomNumber) || roomNumber.isBlank()) {
+            return Optional.empty();
+        }
+        ReservationService shard = propertyService.requireShard(propertyId);
+        long started = metrics.start();
+        try {
+            return shard.getRoom(roomNumber.trim());
+        } finally {
+            metrics.record(Operation.GET_ROOM, started);
+        }
+    }
 
-        return trimmedEmail.flatMap(customerService::getCustomer);
+    public List<String> getProperties() {
+        return propertyService.getPropertyIds();
     }
 
     public void createACustomer(String email, String firstName, String lastName) {
@@ -51,32 +121,372 @@ public class HotelResource {
                 .filter(l -> !l.isEmpty())
                 .orElseThrow(() -> new IllegalArgumentException("Last name must not be null or empty."));
 
-        customerService.addCustomer(validEmail.toLowerCase(), validFirstName, validLastName);
+        long started = metrics.start();
+        try {
+            customerService.addCustomer(validEmail, validFirstName, validLastName);
+        } finally {
+            metrics.record(Operation.CREATE_A_CUSTOMER, started);
+        }
     }
 
     public Optional<Reservation> bookARoom(String customerEmail, IRoom room, Date checkIn, Date checkOut) {
-        if (!Validation.areDatesNotNull(checkIn, checkOut) || !checkIn.before(checkOut)) {
+        if (!Validation.areDatesNotNull(checkIn, checkOut)) {
             throw new IllegalArgumentException("Invalid check-in or check-out dates.");
         }
+        return bookARoom(reservationService, customerEmail, room, DateUtils.toEpochDay(checkIn), DateUtils.toEpochDay(checkOut));
+    }
+
+    public Optional<Reservation> bookARoom(String customerEmail, IRoom room, LocalDate checkIn, LocalDate checkOut) {
+        if (Objects.isNull(checkIn) || Objects.isNull(checkOut)) {
+            throw new IllegalArgumentException("Invalid check-in or check-out dates.");
+        }
+        return bookARoom(reservationService, customerEmail, room, DateUtils.toEpochDay(checkIn), DateUtils.toEpochDay(checkOut));
+    }
 
-        return getCustomer(customerEmail)
-                .map(customer -> reservationService.reserveARoom(customer, room, checkIn, checkOut))
-                .or(() -> {
-                    throw new IllegalArgumentException("Customer not found with email: " + customerEmail);
-                });
+    // Books a room of the given property; bookings in different properties never wait for each other
+    public Optional<Reservation> bookARoom(String propertyId, String customerEmail, IRoom room, LocalDate checkIn, LocalDate checkOut) {
+        if (Objects.isNull(checkIn) || Objects.isNull(checkOut)) {
+            throw new IllegalArgumentException("Invalid check-in or check-out dates.");
+        }
+        ReservationService shard = propertyService.requireShard(propertyId);
+        return bookARoom(shard, customerEmail, room, DateUtils.toEpochDay(checkIn), DateUtils.toEpochDay(checkOut));
     }
 
+    // Books whichever room of the type is cheapest and free for the whole stay, chosen as the booking
+    // commits; empty when no room of the type is free for it
+    public Optional<Reservation> bookARoomOfType(String customerEmail, RoomType roomType, LocalDate checkIn, LocalDate checkOut) {
+        int checkInDay = checkInDayOf(checkIn, checkOut);
+        if (Objects.isNull(roomType)) {
+            throw new IllegalArgumentException("Room type must not be null.");
+        }
+        long started = metrics.start();
+        try {
+            Customer customer = getCustomer(customerEmail)
+                    .orElseThrow(() -> new IllegalArgumentException("Customer not found with email: " + customerEmail));
+            return reservationService.reserveRoomOfType(customer, roomType, checkInDay, DateUtils.toEpochDay(checkOut));
+        } finally {
+            metrics.record(Operation.BOOK_A_ROOM_OF_TYPE, started);
+        }
+    }
+
+    // True when at least roomCount rooms of the type are free on every night of the stay, without listing them
+    public boolean hasFreeRooms(RoomType roomType, LocalDate checkIn, LocalDate checkOut, int roomCount) {
+        int checkInDay = checkInDayOf(checkIn, checkOut);
+        if (Objects.isNull(roomType)) {
+            throw new IllegalArgumentException("Room type must not be null.");
+        }
+        if (roomCount <= 0) {
+            throw new IllegalArgumentException("Room count must be positive.");
+        }
+        long started = metrics.start();
+        try {
+            return reservationService.hasFreeRooms(roomType, checkInDay, DateUtils.toEpochDay(checkOut), roomCount);
+        } finally {
+            metrics.record(Operation.HAS_FREE_ROOMS, started);
+        }
+    }
+
+    // False when the customer has no such reservation
+    public boolean cancelReservation(String customerEmail, String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        return cancelReservation(reservationService, customerEmail, roomNumber, checkInDayOf(checkIn, checkOut),
+                DateUtils.toEpochDay(checkOut));
+    }
+
+    public boolean cancelReservation(String propertyId, String customerEmail, String roomNumber, LocalDate checkIn, LocalDate checkOut) {
+        int checkInDay = checkInDayOf(checkIn, checkOut);
+        ReservationService shard = propertyService.requireShard(propertyId);
+        return cancelReservation(shard, customerEmail, roomNumber, checkInDay, DateUtils.toEpochDay(checkOut));
+    }
+
+    // Moves a reservation to new dates and/or another room of the same property; empty when the new stay
+    // conflicts with another booking, in which case the reservation is left as it was
+    public Optional<Reservation> modifyReservation(String customerEmail, String roomNumber, LocalDate checkIn, LocalDate checkOut,
+                                                   String newRoomNumber, LocalDate newCheckIn, LocalDate newCheckOut) {
+        return modifyReservation(reservationService, customerEmail, roomNumber, checkInDayOf(checkIn, checkOut),
+                DateUtils.toEpochDay(checkOut), newRoomNumber, checkInDayOf(newCheckIn, newCheckOut), DateUtils.toEpochDay(newCheckOut));
+    }
+
+    public Optional<Reservation> modifyReservation(String propertyId, String customerEmail, String roomNumber, LocalDate checkIn,
+                                                   LocalDate checkOut, String newRoomNumber, LocalDate newCheckIn, LocalDate newCheckOut) {
+        int checkInDay = checkInDayOf(checkIn, checkOut);
+        int newCheckInDay = checkInDayOf(newCheckIn, newCheckOut);
+        ReservationService shard = propertyService.requireShard(propertyId);
+        return modifyReservation(shard, customerEmail, roomNumber, checkInDay, DateUtils.toEpochDay(checkOut),
+                newRoomNumber, newCheckInDay, DateUtils.toEpochDay(newCheckOut));
+    }
+
+    // Books every requested room or none of them; empty when any stay conflicts with an existing booking
+    public Optional<List<Reservation>> bookRooms(String customerEmail, List<RoomRequest> roomRequests) {
+        if (Validation.isCollectionEmpty(roomRequests)) {
+            throw new IllegalArgumentException("Room requests must not be null or empty.");
+        }
+
+        List<StayRequest> stays = new ArrayList<>(roomRequests.size());
+        for (RoomRequest request : roomRequests) {
+            if (Objects.isNull(request.checkIn()) || Objects.isNull(request.checkOut())
+                    || !request.checkIn().isBefore(request.checkOut())) {
+                throw new IllegalArgumentException("Invalid check-in or check-out dates.");
+            }
+            stays.add(new StayRequest(request.room(),
+                    DateUtils.toEpochDay(request.checkIn()), DateUtils.toEpochDay(request.checkOut())));
+        }
+
+        long started = metrics.start();
+        try {
+            Customer customer = getCustomer(customerEmail)
+                    .orElseThrow(() -> new IllegalArgumentException("Customer not found with email: " + customerEmail));
+            return reservationService.reserveRooms(customer, stays);
+        } finally {
+            metrics.record(Operation.BOOK_ROOMS, started);
+        }
+    }
+
+    // The customer's reservations in every property, the default property's first
     public Collection<Reservation> getCustomersReservations(String customerEmail) {
-        return getCustomer(customerEmail)
-                .map(reservationService::getCustomersReservation)
-                .orElseGet(Collections::emptyList);
+        long started = metrics.start();
+        try {
+            Optional<Customer> customer = getCustomer(customerEmail);
+            if (customer.isEmpty()) {
+                return Collections.emptyList();
+            }
+            Collection<Reservation> reservations = reservationService.getCustomersReservation(customer.get());
+            if (propertyService.getShards().size() == 1) {
+                return reservations;
+            }
+            List<Reservation> all = new ArrayList<>(reservations);
+            for (ReservationService shard : propertyService.getShards()) {
+                if (shard != reservationService) {
+                    all.addAll(shard.getCustomersReservation(customer.get()));
+                }
+            }
+            return all;
+        } finally {
+            metrics.record(Operation.GET_CUSTOMERS_RESERVATIONS, started);
+        }
     }
 
     public Collection<IRoom> findARoom(Date checkIn, Date checkOut) {
-        if (!Validation.areDatesNotNull(checkIn, checkOut) || !checkIn.before(checkOut)) {
+        if (!Validation.areDatesNotNull(checkIn, checkOut)) {
+            throw new IllegalArgumentException("Invalid check-in or check-out dates.");
+        }
+        return findARoom(DateUtils.toEpochDay(checkIn), DateUtils.toEpochDay(checkOut));
+    }
+
+    public Collection<IRoom> findARoom(LocalDate checkIn, LocalDate checkOut) {
+        if (Objects.isNull(checkIn) || Objects.isNull(checkOut)) {
+            throw new IllegalArgumentException("Invalid check-in or check-out dates.");
+        }
+        return findARoom(DateUtils.toEpochDay(checkIn), DateUtils.toEpochDay(checkOut));
+    }
+
+    // Available rooms of each given property (all of them when none are given), searched in parallel
+    public Map<String, Collection<IRoom>> findARoom(Collection<String> propertyIds, LocalDate checkIn, LocalDate checkOut) {
+        int checkInDay = checkInDayOf(checkIn, checkOut);
+        long started = metrics.start();
+        try {
+            return propertyService.findRooms(propertyIds, checkInDay, DateUtils.toEpochDay(checkOut));
+        } finally {
+            metrics.record(Operation.FIND_A_ROOM, started);
+        }
+    }
+
+    // Cheapest matching rooms over the given properties (all of them when none are given)
+    public List<PropertyRoom> findRooms(Collection<String> propertyIds, RoomFilter filter, LocalDate checkIn, LocalDate checkOut) {
+        int checkInDay = checkInDayOf(checkIn, checkOut);
+        if (Objects.isNull(filter)) {
+            throw new IllegalArgumentException("Room filter must not be null.");
+        }
+        long started = metrics.start();
+        try {
+            return propertyService.findRooms(propertyIds, filter, checkInDay, DateUtils.toEpochDay(checkOut));
+        } finally {
+            metrics.record(Operation.FIND_ROOMS, started);
+        }
+    }
+
+    // Cheapest available rooms matching the filter, at most filter.limit() of them
+    public List<IRoom> findRooms(RoomFilter filter, Date checkIn, Date checkOut) {
+        if (!Validation.areDatesNotNull(checkIn, checkOut)) {
+            throw new IllegalArgumentException("Invalid check-in or check-out dates.");
+        }
+        return findRooms(filter, DateUtils.toEpochDay(checkIn), DateUtils.toEpochDay(checkOut));
+    }
+
+    public List<IRoom> findRooms(RoomFilter filter, LocalDate checkIn, LocalDate checkOut) {
+        if (Objects.isNull(checkIn) || Objects.isNull(checkOut)) {
+            throw new IllegalArgumentException("Invalid check-in or check-out dates.");
+        }
+        return findRooms(filter, DateUtils.toEpochDay(checkIn), DateUtils.toEpochDay(checkOut));
+    }
+
+    // Nearest stays of the same length within windowDays of the requested one, closest first
+    public List<AlternativeStay> findAlternativeStays(Date checkIn, Date checkOut, int windowDays, int maxResults) {
+        if (!Validation.areDatesNotNull(checkIn, checkOut)) {
+            throw new IllegalArgumentException("Invalid check-in or check-out dates.");
+        }
+        return findAlternativeStays(DateUtils.toEpochDay(checkIn), DateUtils.toEpochDay(checkOut), windowDays, maxResults);
+    }
+
+    public List<AlternativeStay> findAlternativeStays(LocalDate checkIn, LocalDate checkOut, int windowDays, int maxResults) {
+        if (Objects.isNull(checkIn) || Objects.isNull(checkOut)) {
             throw new IllegalArgumentException("Invalid check-in or check-out dates.");
         }
-        return reservationService.findRooms(checkIn, checkOut);
+        return findAlternativeStays(DateUtils.toEpochDay(checkIn), DateUtils.toEpochDay(checkOut), windowDays, maxResults);
+    }
+
+    // Replaces the executor the *Async variants run on; calls already submitted finish on the old one
+    public void setAsyncExecutor(Executor executor) {
+        this.asyncExecutor = Objects.requireNonNull(executor, "Executor must not be null");
     }
 
+    public CompletableFuture<Collection<IRoom>> findARoomAsync(LocalDate checkIn, LocalDate checkOut) {
+        Stay stay;
+        try {
+            stay = new Stay(checkInDayOf(checkIn, checkOut), DateUtils.toEpochDay(checkOut));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        var search = new CompletableFuture<Collection<IRoom>>();
+        CompletableFuture<Collection<IRoom>> inFlight = searchesInFlight.putIfAbsent(stay, search);
+        if (Objects.nonNull(inFlight)) {
+            coalescedSearches.increment();
+            return inFlight.copy();
+        }
+        // Leaves the in-flight map before completing, so a caller arriving after the result was
+        // computed starts a fresh search instead of getting an older answer
+        Runnable task = () -> {
+            try {
+                Collection<IRoom> rooms = findARoom(stay.checkInDay(), stay.checkOutDay());
+                searchesInFlight.remove(stay, search);
+                search.complete(rooms);
+            } catch (Throwable e) {
+                searchesInFlight.remove(stay, search);
+                search.completeExceptionally(e);
+            }
+        };
+        try {
+            asyncExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            searchesInFlight.remove(stay, search);
+            search.completeExceptionally(e);
+        }
+        return search.copy();
+    }
+
+    public CompletableFuture<Optional<Reservation>> bookARoomAsync(String customerEmail, IRoom room, LocalDate checkIn, LocalDate checkOut) {
+        return supplyAsync(() -> bookARoom(customerEmail, room, checkIn, checkOut));
+    }
+
+    public CompletableFuture<Collection<Reservation>> getCustomersReservationsAsync(String customerEmail) {
+        return supplyAsync(() -> getCustomersReservations(customerEmail));
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, asyncExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Dates are converted to epoch days once here; everything below works on primitives
+    private Optional<Reservation> bookARoom(ReservationService shard, String customerEmail, IRoom room, int checkInDay, int checkOutDay) {
+        if (checkInDay >= checkOutDay) {
+            throw new IllegalArgumentException("Invalid check-in or check-out dates.");
+        }
+
+        long started = metrics.start();
+        try {
+            Customer customer = getCustomer(customerEmail)
+                    .orElseThrow(() -> new IllegalArgumentException("Customer not found with email: " + customerEmail));
+
+            // Empty when the room has already been booked for an overlapping stay
+            return shard.reserveARoom(customer, room, checkInDay, checkOutDay);
+        } finally {
+            metrics.record(Operation.BOOK_A_ROOM, started);
+        }
+    }
+
+    private boolean cancelReservation(ReservationService shard, String customerEmail, String roomNumber, int checkInDay, int checkOutDay) {
+        long started = metrics.start();
+        try {
+            Optional<Customer> customer = getCustomer(customerEmail);
+            Optional<IRoom> room = Objects.isNull(roomNumber) ? Optional.empty() : shard.getRoom(roomNumber);
+            if (customer.isEmpty() || room.isEmpty()) {
+                return false;
+            }
+            return shard.cancelReservation(new Reservation(customer.get(), room.get(), checkInDay, checkOutDay));
+        } finally {
+            metrics.record(Operation.CANCEL_RESERVATION, started);
+        }
+    }
+
+    private Optional<Reservation> modifyReservation(ReservationService shard, String customerEmail, String roomNumber,
+                                                    int checkInDay, int checkOutDay, String newRoomNumber,
+                                                    int newCheckInDay, int newCheckOutDay) {
+        long started = metrics.start();
+        try {
+            Customer customer = getCustomer(customerEmail)
+                    .orElseThrow(() -> new IllegalArgumentException("Customer not found with email: " + customerEmail));
+            IRoom room = Optional.ofNullable(roomNumber).flatMap(shard::getRoom)
+                    .orElseThrow(() -> new IllegalArgumentException("Reservation not found"));
+            IRoom newRoom = Optional.ofNullable(newRoomNumber).flatMap(shard::getRoom)
+                    .orElseThrow(() -> new IllegalArgumentException("Room " + newRoomNumber + " does not exist"));
+            return shard.modifyReservation(new Reservation(customer, room, checkInDay, checkOutDay),
+                    newRoom, newCheckInDay, newCheckOutDay);
+        } finally {
+            metrics.record(Operation.MODIFY_RESERVATION, started);
+        }
+    }
+
+    private List<AlternativeStay> findAlternativeStays(int checkInDay, int checkOutDay, int windowDays, int maxResults) {
+        if (checkInDay >= checkOutDay) {
+            throw new IllegalArgumentException("Invalid check-in or check-out dates.");
+        }
+        long started = metrics.start();
+        try {
+            return reservationService.findNearestAvailableWindows(checkInDay, checkOutDay, windowDays, maxResults).stream()
+                    .map(window -> new AlternativeStay(DateUtils.toLocalDate(window.checkInDay()),
+                            DateUtils.toLocalDate(window.checkOutDay()), window.rooms()))
+                    .toList();
+        } finally {
+            metrics.record(Operation.FIND_ALTERNATIVE_STAYS, started);
+        }
+    }
+
+    private List<IRoom> findRooms(RoomFilter filter, int checkInDay, int checkOutDay) {
+        if (Objects.isNull(filter)) {
+            throw new IllegalArgumentException("Room filter must not be null.");
+        }
+        if (checkInDay >= checkOutDay) {
+            throw new IllegalArgumentException("Invalid check-in or check-out dates.");
+        }
+        long started = metrics.start();
+        try {
+            return reservationService.findRooms(filter, checkInDay, checkOutDay);
+        } finally {
+            metrics.record(Operation.FIND_ROOMS, started);
+        }
+    }
+
+    private Collection<IRoom> findARoom(int checkInDay, int checkOutDay) {
+        if (checkInDay >= checkOutDay) {
+            throw new IllegalArgumentException("Invalid check-in or check-out dates.");
+        }
+        long started = metrics.start();
+        try {
+            return reservationService.findRooms(checkInDay, checkOutDay);
+        } finally {
+            metrics.record(Operation.FIND_A_ROOM, started);
+        }
+    }
+
+    // Validated check-in epoch day of a stay
+    private static int checkInDayOf(LocalDate checkIn, LocalDate checkOut) {
+        if (Objects.isNull(checkIn) || Objects.isNull(checkOut) || !checkIn.isBefore(checkOut)) {
+            throw new IllegalArgumentException("Invalid check-in or check-out dates.");
+        }
+        return DateUtils.toEpochDay(checkIn);
+    }
 }
@@ -0,0 +1,399 @@
+package api.http;
+
+import Utils.DateUtils;
+import api.AdminResource;
+import api.HotelResource;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.Customer;
+import model.IRoom;
+import model.OccupancyStats;
+import model.Page;
+import model.Reservation;
+import model.RoomType;
+import service.metrics.LatencyHistogram;
+import service.reservation.ReservationService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// JSON over HTTP for kiosks and web front ends, served by the JDK's built-in server with one virtual
+// thread per request. Dates are yyyy-MM-dd (MM/dd/yyyy is accepted too).
+//
+//   GET  /rooms?checkIn=&checkOut=&properties=        free rooms for the stay, in the given comma-separated
+//                                                     properties or in all of them
+//   POST /customers  {email, firstName, lastName}     201
+//   GET  /customers/{email}/reservations
+//   POST /reservations  {email, roomNumber, checkIn, checkOut, property}   201, or 409 when the room is taken;
+//                                                     property defaults to the main one
+//   DELETE /reservations  {email, roomNumber, checkIn, checkOut, property}   204, or 404 when there is none
+//   PUT  /reservations  {..., newRoomNumber, newCheckIn, newCheckOut}   200 with the updated reservation,
+//                                                     or 409 when the new stay is taken; the room defaults to the old one
+//   GET  /admin/rooms|customers|reservations?cursor=&limit=      one page, see Page
+//   GET  /admin/stats                                 request count and latency percentiles
+//   GET  /admin/metrics                               per-operation metrics and gauges as plain text
+//   GET  /admin/occupancy?from=&to=&roomType=&by=day|month       occupancy and revenue, in total or per period
+public class HotelHttpServer implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(HotelHttpServer.class.getName());
+    private static final int BACKLOG = 4096;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 10_000;
+
+    private final HotelResource hotelResource = HotelResource.getHotelResourceInstance();
+    private final AdminResource adminResource = AdminResource.getAdminResourceInstance();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpServer server;
+
+    private HotelHttpServer(InetSocketAddress address) throws IOException {
+        server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/rooms", exchange -> handle(exchange, this::rooms));
+        server.createContext("/customers", exchange -> handle(exchange, this::customers));
+        server.createContext("/reservations", exchange -> handle(exchange, this::reservations));
+        server.createContext("/admin", exchange -> handle(exchange, this::admin));
+    }
+
+    public static HotelHttpServer start(InetSocketAddress address) throws IOException {
+        var httpServer = new HotelHttpServer(address);
+        httpServer.server.start();
+        logger.info("HTTP server listening on " + httpServer.getAddress());
+        return httpServer;
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public String latencySummary() {
+        return String.format("%,d requests, p50 %d us, p99 %d us, p99.9 %d us", latencies.count(),
+                latencies.percentileMicros(50), latencies.percentileMicros(99), latencies.percentileMicros(99.9));
+    }
+
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.close();
+        logger.info("HTTP server stopped: " + latencySummary());
+    }
+
+    private record Response(int status, String body, String contentType) {
+
+        Response(int status, String body) {
+            this(status, body, "application/json; charset=utf-8");
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Response handle(HttpExchange exchange) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) {
+        long started = System.nanoTime();
+        Response response;
+        try {
+            response = handler.handle(exchange);
+        } catch (IllegalArgumentException e) {
+            response = error(400, e.getMessage());
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Request failed: " + exchange.getRequestURI(), e);
+            response = error(500, "Internal server error.");
+        }
+        try (exchange) {
+            byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", response.contentType);
+            // -1 sends no body at all, as a 204 requires
+            exchange.sendResponseHeaders(response.status, body.length == 0 ? -1 : body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            logger.fine("Could not send response: " + e.getMessage());
+        } finally {
+            latencies.record(System.nanoTime() - started);
+        }
+    }
+
+    private Response rooms(HttpExchange exchange) {
+        if (!isGet(exchange) || !exchange.getRequestURI().getPath().equals("/rooms")) {
+            return notFound();
+        }
+        Map<String, String> query = query(exchange);
+        String properties = query.get("properties");
+        Map<String, Collection<IRoom>> rooms = hotelResource.findARoom(
+                Objects.isNull(properties) ? List.of() : List.of(properties.split(",")),
+                date(query, "checkIn"), date(query, "checkOut"));
+        JsonWriter json = new JsonWriter().beginArray();
+        rooms.forEach((propertyId, found) -> found.forEach(room -> writeRoom(json, propertyId, room)));
+        return ok(json.endArray());
+    }
+
+    private Response customers(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.equals("/customers") && isPost(exchange)) {
+            Map<String, String> body = body(exchange);
+            String email = required(body, "email");
+            if (hotelResource.getCustomer(email).isPresent()) {
+                return error(409, "A customer with this email already exists.");
+            }
+            hotelResource.createACustomer(email, required(body, "firstName"), required(body, "lastName"));
+            Customer customer = hotelResource.getCustomer(email).orElseThrow();
+            return new Response(201, writeCustomer(new JsonWriter(), customer).toString());
+        }
+        String suffix = "/reservations";
+        if (isGet(exchange) && path.startsWith("/customers/") && path.endsWith(suffix)) {
+            String email = path.substring("/customers/".length(), path.length() - suffix.length());
+            if (hotelResource.getCustomer(email).isEmpty()) {
+                return error(404, "Customer not found.");
+            }
+            return ok(writeAll(new JsonWriter(), hotelResource.getCustomersReservations(email), HotelHttpServer::writeReservation));
+        }
+        return notFound();
+    }
+
+    private Response reservations(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestURI().getPath().equals("/reservations")) {
+            return notFound();
+        }
+        return switch (exchange.getRequestMethod()) {
+            case "POST" -> book(body(exchange));
+            case "DELETE" -> cancel(body(exchange));
+            case "PUT" -> modify(body(exchange));
+            default -> notFound();
+        };
+    }
+
+    private Response book(Map<String, String> body) {
+        String email = required(body, "email");
+        String propertyId = body.getOrDefault("property", ReservationService.DEFAULT_PROPERTY);
+        Optional<IRoom> room = hotelResource.getRoom(propertyId, required(body, "roomNumber"));
+        if (room.isEmpty()) {
+            return error(404, "Room not found.");
+        }
+        if (hotelResource.getCustomer(email).isEmpty()) {
+            return error(404, "Customer not found.");
+        }
+        return hotelResource.bookARoom(propertyId, email, room.get(), date(body, "checkIn"), date(body, "checkOut"))
+                .map(reservation -> new Response(201, writeReservation(new JsonWriter(), reservation).toString()))
+                .orElseGet(() -> error(409, "The room is already booked for those dates."));
+    }
+
+    private Response cancel(Map<String, String> body) {
+        String propertyId = body.getOrDefault("property", ReservationService.DEFAULT_PROPERTY);
+        boolean cancelled = hotelResource.cancelReservation(propertyId, required(body, "email"), required(body, "roomNumber"),
+                date(body, "checkIn"), date(body, "checkOut"));
+        return cancelled ? new Response(204, "") : error(404, "Reservation not found.");
+    }
+
+    private Response modify(Map<String, String> body) {
+        String email = required(body, "email");
+        String propertyId = body.getOrDefault("property", ReservationService.DEFAULT_PROPERTY);
+        String roomNumber = required(body, "roomNumber");
+        String newRoomNumber = body.getOrDefault("newRoomNumber", roomNumber);
+        if (hotelResource.getRoom(propertyId, newRoomNumber).isEmpty()) {
+            return error(404, "Room not found.");
+        }
+        if (hotelResource.getCustomer(email).isEmpty()) {
+            return error(404, "Customer not found.");
+        }
+        return hotelResource.modifyReservation(propertyId, email, roomNumber, date(body, "checkIn"), date(body, "checkOut"),
+                        newRoomNumber, date(body, "newCheckIn"), date(body, "newCheckOut"))
+                .map(reservation -> ok(writeReservation(new JsonWriter(), reservation)))
+                .orElseGet(() -> error(409, "The room is already booked for those dates."));
+    }
+
+    private Response admin(HttpExchange exchange) {
+        if (!isGet(exchange)) {
+            return notFound();
+        }
+        Map<String, String> query = query(exchange);
+        String cursor = query.get("cursor");
+        return switch (exchange.getRequestURI().getPath()) {
+            case "/admin/rooms" -> ok(writePage(adminResource.getRoomsPage(cursor, pageSize(query)), HotelHttpServer::writeRoom));
+            case "/admin/customers" -> ok(writePage(adminResource.getCustomersPage(cursor, pageSize(query)), HotelHttpServer::writeCustomer));
+            case "/admin/reservations" -> ok(writePage(adminResource.getReservationsPage(cursor, pageSize(query)), HotelHttpServer::writeReservation));
+            case "/admin/stats" -> ok(new JsonWriter().beginObject()
+                    .name("requests").value(latencies.count())
+                    .name("p50Micros").value(latencies.percentileMicros(50))
+                    .name("p99Micros").value(latencies.percentileMicros(99))
+                    .name("p999Micros").value(latencies.percentileMicros(99.9))
+                    .name("maxMicros").value(latencies.maxMicros())
+                    .endObject());
+            case "/admin/metrics" -> new Response(200, adminResource.getMetricsReport(), "text/plain; charset=utf-8");
+            case "/admin/occupancy" -> ok(occupancy(query));
+            default -> notFound();
+        };
+    }
+
+    private JsonWriter occupancy(Map<String, String> query) {
+        LocalDate from = date(query, "from");
+        LocalDate to = date(query, "to");
+        RoomType roomType = null;
+        if (Objects.nonNull(query.get("roomType"))) {
+            try {
+                roomType = RoomType.valueOf(query.get("roomType").toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown room type.");
+            }
+        }
+        String by = query.getOrDefault("by", "total");
+        List<OccupancyStats> stats = switch (by) {
+            case "total" -> List.of(adminResource.getOccupancyStats(from, to, roomType));
+            case "day" -> adminResource.getDailyOccupancy(from, to, roomType);
+            case "month" -> adminResource.getMonthlyOccupancy(YearMonth.from(from), YearMonth.from(to.minusDays(1)), roomType);
+            default -> throw new IllegalArgumentException("by must be total, day or month.");
+        };
+        return writeAll(new JsonWriter(), stats, HotelHttpServer::writeOccupancy);
+    }
+
+    private static <T> JsonWriter writePage(Page<T> page, BiConsumer<JsonWriter, T> itemWriter) {
+        JsonWriter json = new JsonWriter().beginObject().name("items");
+        writeAll(json, page.items(), itemWriter);
+        return json.name("nextCursor").value(page.nextCursor()).endObject();
+    }
+
+    private static <T> JsonWriter writeAll(JsonWriter json, Collection<T> items, BiConsumer<JsonWriter, T> itemWriter) {
+        json.beginArray();
+        items.forEach(item -> itemWriter.accept(json, item));
+        return json.endArray();
+    }
+
+    private static JsonWriter writeRoom(JsonWriter json, IRoom room) {
+        return json.beginObject()
+                .name("roomNumber").value(room.getRoomNumber())
+                .name("price").value(room.getRoomPrice())
+                .name("roomType").value(room.getRoomType().name())
+                .name("free").value(room.isFree())
+                .endObject();
+    }
+
+    private static JsonWriter writeRoom(JsonWriter json, String propertyId, IRoom room) {
+        return json.beginObject()
+                .name("property").value(propertyId)
+                .name("roomNumber").value(room.getRoomNumber())
+                .name("price").value(room.getRoomPrice())
+                .name("roomType").value(room.getRoomType().name())
+                .name("free").value(room.isFree())
+                .endObject();
+    }
+
+    private static JsonWriter writeCustomer(JsonWriter json, Customer customer) {
+        return json.beginObject()
+                .name("email").value(customer.email())
+                .name("firstName").value(customer.firstName())
+                .name("lastName").value(customer.lastName())
+                .endObject();
+    }
+
+    private static JsonWriter writeReservation(JsonWriter json, Reservation reservation) {
+        return json.beginObject()
+                .name("email").value(reservation.customer().email())
+                .name("roomNumber").value(reservation.room().getRoomNumber())
+                .name("checkIn").value(DateUtils.toLocalDate(reservation.checkInDay()).toString())
+                .name("checkOut").value(DateUtils.toLocalDate(reservation.checkOutDay()).toString())
+                .endObject();
+    }
+
+    private static JsonWriter writeOccupancy(JsonWriter json, OccupancyStats stats) {
+        return json.beginObject()
+                .name("from").value(stats.from().toString())
+                .name("to").value(stats.to().toString())
+                .name("roomType").value(Objects.isNull(stats.roomType()) ? null : stats.roomType().name())
+                .name("occupiedRoomNights").value(stats.occupiedRoomNights())
+                .name("availableRoomNights").value(stats.availableRoomNights())
+                .name("occupancyPercent").value(stats.occupancyPercent())
+                .name("revenue").value(stats.revenue())
+                .endObject();
+    }
+
+    private static boolean isGet(HttpExchange exchange) {
+        return "GET".equals(exchange.getRequestMethod());
+    }
+
+    private static boolean isPost(HttpExchange exchange) {
+        return "POST".equals(exchange.getRequestMethod());
+    }
+
+    private static Response ok(JsonWriter json) {
+        return new Response(200, json.toString());
+    }
+
+    private static Response notFound() {
+        return error(404, "Not found.");
+    }
+
+    private static Response error(int status, String message) {
+        return new Response(status, new JsonWriter().beginObject().name("error").value(message).endObject().toString());
+    }
+
+    private static Map<String, String> body(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return JsonReader.readObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (Objects.isNull(query)) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (Objects.isNull(value) || value.isBlank()) {
+            throw new IllegalArgumentException("Missing " + name + ".");
+        }
+        return value;
+    }
+
+    private static LocalDate date(Map<String, String> fields, String name) {
+        int epochDay = DateUtils.parseEpochDay(required(fields, name));
+        if (epochDay == DateUtils.INVALID_DAY) {
+            throw new IllegalArgumentException("Invalid " + name + " date.");
+        }
+        return DateUtils.toLocalDate(epochDay);
+    }
+
+    private static int pageSize(Map<String, String> query) {
+        String limit = query.get("limit");
+        if (Objects.isNull(limit)) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        try {
+            return Math.min(Integer.parseInt(limit), MAX_PAGE_SIZE);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid limit.");
+        }
+    }
+}
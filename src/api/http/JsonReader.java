@@ -0,0 +1,142 @@
+package api.http;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Reads the flat request bodies the API accepts: one object whose values are strings, numbers,
+// booleans or null. Every value is returned as text; anything else is rejected.
+final class JsonReader {
+
+    private final String text;
+    private int position;
+
+    private JsonReader(String text) {
+        this.text = text;
+    }
+
+    static Map<String, String> readObject(String text) {
+        var reader = new JsonReader(text);
+        Map<String, String> fields = reader.object();
+        reader.skipWhitespace();
+        if (reader.position != text.length()) {
+            throw malformed();
+        }
+        return fields;
+    }
+
+    private Map<String, String> object() {
+        Map<String, String> fields = new HashMap<>();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return fields;
+        }
+        while (true) {
+            skipWhitespace();
+            String name = string();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            fields.put(name, value());
+            skipWhitespace();
+            char next = next();
+            if (next == '}') {
+                return fields;
+            }
+            if (next != ',') {
+                throw malformed();
+            }
+        }
+    }
+
+    private String value() {
+        char c = peek();
+        if (c == '"') {
+            return string();
+        }
+        int start = position;
+        while (position < text.length() && ",}] \t\r\n".indexOf(text.charAt(position)) < 0) {
+            position++;
+        }
+        String literal = text.substring(start, position);
+        if (literal.equals("null")) {
+            return null;
+        }
+        if (literal.equals("true") || literal.equals("false")) {
+            return literal;
+        }
+        try {
+            Double.parseDouble(literal);
+        } catch (NumberFormatException e) {
+            throw malformed();
+        }
+        return literal;
+    }
+
+    private String string() {
+        expect('"');
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case '"', '\\', '/' -> value.append(escaped);
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'u' -> {
+                    if (position + 4 > text.length()) {
+                        throw malformed();
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(text, position, position + 4, 16));
+                    } catch (NumberFormatException e) {
+                        throw malformed();
+                    }
+                    position += 4;
+                }
+                default -> throw malformed();
+            }
+        }
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            throw malformed();
+        }
+    }
+
+    private char next() {
+        if (position >= text.length()) {
+            throw malformed();
+        }
+        return text.charAt(position++);
+    }
+
+    private char peek() {
+        if (position >= text.length()) {
+            throw malformed();
+        }
+        return text.charAt(position);
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private static IllegalArgumentException malformed() {
+        return new IllegalArgumentException("Malformed JSON request body.");
+    }
+}
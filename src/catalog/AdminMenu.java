@@ -1,14 +1,12 @@
 package catalog;
 
-import Utils.DisplayUtils;
+import Utils.DateUtils;
 import api.AdminResource;
-import contains.PatternConstants;
-import model.Customer;
-import model.IRoom;
 import model.Room;
 import model.RoomType;
 import validation.Validation;
 
+import java.time.LocalDate;
 import java.util.*;
 import java.util.function.Function;
 
@@ -39,14 +37,29 @@ public class AdminMenu {
 
     private static void handleMenuChoice(char action) {
         switch (action) {
-            case '1' -> displayAllCustomers();
-            case '2' -> displayAllRooms();
+            case '1' -> hotelAdminResource.displayAllCustomers();
+            case '2' -> hotelAdminResource.displayAllRooms();
             case '3' -> hotelAdminResource.displayAllReservations();
             case '4' -> addRoom();
+            case '6' -> hotelAdminResource.displayMetrics();
+            case '7' -> displayOccupancy();
             default -> System.out.println("Unrecognized action. Please select a valid option.");
         }
     }
 
+    private static void displayOccupancy() {
+        LocalDate from = promptForValidDate("Please enter the first night (MM/dd/yyyy): ");
+        LocalDate to = promptForValidDate("Please enter the day after the last night (MM/dd/yyyy): ");
+        if (!from.isBefore(to)) {
+            System.out.println("The first night must be before the end date.");
+            return;
+        }
+        for (RoomType roomType : RoomType.values()) {
+            System.out.println(hotelAdminResource.getOccupancyStats(from, to, roomType));
+        }
+        System.out.println(hotelAdminResource.getOccupancyStats(from, to, null));
+    }
+
     private static void addRoom() {
         do {
             Room room = createRoom();
@@ -83,6 +96,13 @@ public class AdminMenu {
         return promptForValidInput(prompt, errorMessage, Double::parseDouble);
     }
 
+    private static LocalDate promptForValidDate(String prompt) {
+        return promptForValidInput(prompt, "Invalid date. Please use the format MM/dd/yyyy.", input -> {
+            int epochDay = DateUtils.parseEpochDay(input);
+            return epochDay == DateUtils.INVALID_DAY ? null : DateUtils.toLocalDate(epochDay);
+        });
+    }
+
     private static RoomType promptForValidRoomType(String prompt, String errorMessage) {
         return promptForValidInput(prompt, errorMessage, input -> roomTypeMap.get(input));
     }
@@ -103,18 +123,6 @@ public class AdminMenu {
         return scanner.nextLine().trim();
     }
 
-    private static void displayAllRooms() {
-        Collection<IRoom> rooms = hotelAdminResource.getAllRooms();
-        DisplayUtils.displayCollection("Available Rooms:", rooms, room ->
-                String.format("Room Number: %s%nPrice: %.2f%nType: %s%nAvailable: %b",
-                        room.getRoomNumber(), room.getRoomPrice(), room.getRoomType(), room.isFree()), PatternConstants.SEPARATOR);
-    }
-
-    private static void displayAllCustomers() {
-        Collection<Customer> customers = hotelAdminResource.getAllCustomers();
-        DisplayUtils.displayCollection("Customers List:", customers, Customer::toString, PatternConstants.SEPARATOR);
-    }
-
     private static void printMenu() {
         String menu = """
                 Admin Menu
@@ -124,6 +132,8 @@ public class AdminMenu {
                 3. See all Reservations
                 4. Add a Room
                 5. Back to Main Menu
+                6. See Metrics
+                7. See Occupancy and Revenue
                 --------------------------------------------
                 """;
         System.out.print(menu);
@@ -3,6 +3,7 @@ package catalog;
 import Utils.DisplayUtils;
 import api.HotelResource;
 import contains.PatternConstants;
+import model.AlternativeStay;
 import model.Reservation;
 import model.IRoom;
 import service.HotelReservationProcess;
@@ -11,6 +12,7 @@ import validation.Validation;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 public class MainMenu {
@@ -18,6 +20,7 @@ public class MainMenu {
     private static final HotelResource hotelResourceService = HotelResource.getHotelResourceInstance();
     private static final Scanner scanner = new Scanner(System.in);
     private static final ReservationProcess reservationProcess = new HotelReservationProcess(hotelResourceService, scanner);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern(PatternConstants.MY_CUSTOM_DATE_FORMAT);
 
     public static boolean displayMainMenu() {
         while (true) {
@@ -67,10 +70,14 @@ public class MainMenu {
         System.out.printf("No rooms available for the selected dates: Check-in %s, Check-out %s.%n",
                 sdf.format(checkIn), sdf.format(checkOut));
         // Hiển thị thông tin về phòng gợi ý nếu có
-        Collection<IRoom> recommendedRooms = reservationProcess.findRecommendedRooms(checkIn, checkOut);
-        if (!Validation.isCollectionEmpty(recommendedRooms)) {
+        List<AlternativeStay> recommendedStays = reservationProcess.findRecommendedStays(checkIn, checkOut);
+        if (!recommendedStays.isEmpty()) {
             System.out.println("However, we found some rooms available for alternative dates:");
-            DisplayUtils.browseRooms(recommendedRooms); // Hiển thị các phòng gợi ý
+            for (AlternativeStay stay : recommendedStays) {
+                System.out.printf("Check-in %s, Check-out %s:%n",
+                        stay.checkIn().format(DATE_FORMATTER), stay.checkOut().format(DATE_FORMATTER));
+                DisplayUtils.browseRooms(stay.rooms()); // Hiển thị các phòng gợi ý
+            }
         } else {
             System.out.println("No rooms available even for alternative dates.");
         }
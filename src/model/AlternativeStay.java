@@ -0,0 +1,7 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public record AlternativeStay(LocalDate checkIn, LocalDate checkOut, Collection<IRoom> rooms) {
+}
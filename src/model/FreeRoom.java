@@ -6,6 +6,11 @@ public final class FreeRoom extends Room {
         super(roomNumber, 0.0, roomType);
     }
 
+    @Override
+    public boolean isFree() {
+        return true;
+    }
+
     @Override
     public String toString() {
         return "FreeRoom{" +
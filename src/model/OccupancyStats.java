@@ -0,0 +1,21 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+// Occupancy and revenue over the nights [from, to); a null room type covers every type.
+// Available room-nights count the rooms that exist now, for every night of the range.
+public record OccupancyStats(LocalDate from, LocalDate to, RoomType roomType,
+                             long occupiedRoomNights, long availableRoomNights, double revenue) {
+
+    public double occupancyPercent() {
+        return availableRoomNights == 0 ? 0 : occupiedRoomNights * 100.0 / availableRoomNights;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s to %s, %s: %.1f%% occupied (%,d of %,d room-nights), revenue $%,.2f",
+                from, to, Objects.isNull(roomType) ? "all rooms" : roomType, occupancyPercent(),
+                occupiedRoomNights, availableRoomNights, revenue);
+    }
+}
@@ -0,0 +1,35 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+// One page of a listing; pass nextCursor back to continue after the last item, null when there is nothing more
+public record Page<T>(List<T> items, String nextCursor) {
+
+    public Page {
+        items = List.copyOf(items);
+    }
+
+    // Takes up to pageSize items; the cursor is the last item's key, and only set when items has more
+    public static <T> Page<T> take(Iterator<T> items, int pageSize, Function<T, String> cursorOf) {
+        checkPageSize(pageSize);
+        List<T> taken = new ArrayList<>(Math.min(pageSize, 1024));
+        while (taken.size() < pageSize && items.hasNext()) {
+            taken.add(items.next());
+        }
+        return new Page<>(taken, items.hasNext() ? cursorOf.apply(taken.getLast()) : null);
+    }
+
+    public static void checkPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+    }
+
+    public boolean hasNext() {
+        return Objects.nonNull(nextCursor);
+    }
+}
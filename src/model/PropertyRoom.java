@@ -0,0 +1,5 @@
+package model;
+
+// A room together with the property (hotel) it belongs to; room numbers are only unique within a property
+public record PropertyRoom(String propertyId, IRoom room) {
+}
@@ -1,13 +1,24 @@
 package model;
 
+import Utils.DateUtils;
+
 import java.util.Date;
 
-public record Reservation(Customer customer, IRoom room, Date checkInDate, Date checkOutDate) {
+public record Reservation(Customer customer, IRoom room, int checkInDay, int checkOutDay) {
+
+    public Date checkInDate() {
+        return DateUtils.toDate(checkInDay);
+    }
+
+    public Date checkOutDate() {
+        return DateUtils.toDate(checkOutDay);
+    }
+
     @Override
     public String toString() {
         return "Customer: " + customer.toString()
                 + "\nRoom: " + room.toString()
-                + "\nCheckIn Date: " + checkInDate
-                + "\nCheckOut Date: " + checkOutDate;
+                + "\nCheckIn Date: " + checkInDate()
+                + "\nCheckOut Date: " + checkOutDate();
     }
 }
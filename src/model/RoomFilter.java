@@ -0,0 +1,31 @@
+package model;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+// Room search criteria: an empty type set matches every type, a null free flag matches free and paid rooms.
+// Matching rooms come back cheapest first, at most limit of them.
+public record RoomFilter(Set<RoomType> roomTypes, double minPrice, double maxPrice, Boolean free, int limit) {
+
+    public RoomFilter {
+        roomTypes = Objects.isNull(roomTypes) || roomTypes.isEmpty()
+                ? Collections.unmodifiableSet(EnumSet.allOf(RoomType.class))
+                : Collections.unmodifiableSet(EnumSet.copyOf(roomTypes));
+        if (Double.isNaN(minPrice) || Double.isNaN(maxPrice) || minPrice > maxPrice) {
+            throw new IllegalArgumentException("Invalid price range.");
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive.");
+        }
+    }
+
+    public boolean includesFree() {
+        return !Boolean.FALSE.equals(free);
+    }
+
+    public boolean includesPaid() {
+        return !Boolean.TRUE.equals(free);
+    }
+}
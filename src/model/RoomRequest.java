@@ -0,0 +1,6 @@
+package model;
+
+import java.time.LocalDate;
+
+public record RoomRequest(IRoom room, LocalDate checkIn, LocalDate checkOut) {
+}
@@ -0,0 +1,48 @@
+package service;
+
+import model.Customer;
+import model.IRoom;
+import model.Reservation;
+import service.reservation.ReservationService;
+
+import java.util.List;
+
+// Notified of every change to the in-memory services in the order the changes were made. A callback
+// runs while the change still holds its locks: a room or customer is reported before anyone can find
+// it, and a stay before its room can change again, so two changes that depend on each other always
+// arrive in that order. Callbacks must therefore be quick and must not call back into the services.
+// afterCommit runs on the same thread once the locks are released, before the changing call returns;
+// slow work such as waiting for a disk flush belongs there.
+public interface HotelEventListener {
+
+    // A new property's shard, before it can be found; nothing in it has changed yet
+    default void onPropertyAdded(ReservationService shard) {
+    }
+
+    default void onRoomAdded(IRoom room) {
+    }
+
+    default void onCustomerAdded(Customer customer) {
+    }
+
+    default void onReservationAdded(Reservation reservation) {
+    }
+
+    default void onReservationCancelled(Reservation reservation) {
+    }
+
+    // A modification is applied as one unit; seen as a cancellation followed by a new booking by default
+    default void onReservationModified(Reservation previous, Reservation updated) {
+        onReservationCancelled(previous);
+        onReservationAdded(updated);
+    }
+
+    // Used by bulk imports, and for a group booking committed as one unit
+    default void onReservationsAdded(List<Reservation> reservations) {
+        reservations.forEach(this::onReservationAdded);
+    }
+
+    // Called once per changing call, after every callback for it
+    default void afterCommit() {
+    }
+}
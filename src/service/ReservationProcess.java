@@ -2,12 +2,10 @@ package service;
 
 import Utils.DisplayUtils;
 import api.HotelResource;
+import model.AlternativeStay;
 import model.IRoom;
 import model.Reservation;
-import validation.Validation;
 
-import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.*;
 import java.util.logging.Logger;
 
@@ -15,6 +13,9 @@ public abstract class ReservationProcess {
     protected final HotelResource hotelResourceService;
     protected final Scanner scanner;
     private static final Logger logger = Logger.getLogger(ReservationProcess.class.getName());
+    // Alternative stays are searched this many days before and after the requested dates
+    private static final int RECOMMENDATION_WINDOW_DAYS = Integer.getInteger("hotel.recommendation.windowDays", 30);
+    private static final int MAX_RECOMMENDED_STAYS = 3;
 
     protected ReservationProcess(HotelResource hotelResourceService, Scanner scanner) {
         this.hotelResourceService = hotelResourceService;
@@ -42,9 +43,9 @@ public abstract class ReservationProcess {
         if (Objects.isNull(selectedRoom)) {
             cancel("Room not available. Please start again.");
             // Try to find recommended rooms
-            Collection<IRoom> recommendedRooms = findRecommendedRooms(checkIn, checkOut);
-            if (!recommendedRooms.isEmpty()) {
-                handleRecommendedRooms(recommendedRooms, email, checkIn, checkOut);
+            List<AlternativeStay> recommendedStays = findRecommendedStays(checkIn, checkOut);
+            if (!recommendedStays.isEmpty()) {
+                handleRecommendedStay(recommendedStays.getFirst(), email);
             } else {
                 cancel("No rooms available for alternative dates.");
             }
@@ -77,66 +78,43 @@ public abstract class ReservationProcess {
                     System.out.println("Reservation successful!");
                     System.out.println(res);
                 },
-                () -> System.out.println("Failed to make a reservation.")
+                () -> System.out.println("Failed to make a reservation. The room is already booked for those dates.")
         );
     }
 
-    public Collection<IRoom> findRecommendedRooms(Date checkIn, Date checkOut) {
-        logger.info("Finding recommended rooms");
+    public List<AlternativeStay> findRecommendedStays(Date checkIn, Date checkOut) {
+        logger.fine(() -> "Finding recommended stays for " + checkIn + " to " + checkOut);
 
-        LocalDate checkInDate = convertToLocalDate(checkIn);
-        LocalDate checkOutDate = convertToLocalDate(checkOut);
+        List<AlternativeStay> recommendedStays = hotelResourceService.findAlternativeStays(
+                checkIn, checkOut, RECOMMENDATION_WINDOW_DAYS, MAX_RECOMMENDED_STAYS);
 
-        logger.info("Original Check-In Date: " + checkInDate);
-        logger.info("Original Check-Out Date: " + checkOutDate);
-
-        LocalDate recommendedCheckIn = checkInDate.plusDays(7);
-        LocalDate recommendedCheckOut = checkOutDate.plusDays(7);
-
-        logger.info("Recommended Check-In Date: " + recommendedCheckIn);
-        logger.info("Recommended Check-Out Date: " + recommendedCheckOut);
-
-        Date recommendedCheckInDate = convertToDate(recommendedCheckIn);
-        Date recommendedCheckOutDate = convertToDate(recommendedCheckOut);
-
-        logger.info("Converted Recommended Check-In Date: " + recommendedCheckInDate);
-        logger.info("Converted Recommended Check-Out Date: " + recommendedCheckOutDate);
-
-        Collection<IRoom> recommendedRooms = hotelResourceService.findARoom(recommendedCheckInDate, recommendedCheckOutDate);
-
-        if (Validation.isCollectionEmpty(recommendedRooms)) {
-            logger.info("No recommended rooms available.");
+        // Timings are in the findAlternativeStays metrics; the log only traces the outcome
+        if (recommendedStays.isEmpty()) {
+            logger.fine("No recommended rooms available.");
         } else {
-            logger.info("Found " + recommendedRooms.size() + " recommended rooms.");
+            logger.fine(() -> "Found " + recommendedStays.size() + " alternative stays, nearest from "
+                    + recommendedStays.getFirst().checkIn() + " to " + recommendedStays.getFirst().checkOut());
         }
 
-        return recommendedRooms;
-    }
-
-    private LocalDate convertToLocalDate(Date date) {
-        logger.fine("Converting Date to LocalDate: " + date);
-        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-    }
-
-    private Date convertToDate(LocalDate localDate) {
-        logger.fine("Converting LocalDate to Date: " + localDate);
-        return Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        return recommendedStays;
     }
 
-    private void handleRecommendedRooms(Collection<IRoom> recommendedRooms, String email, Date originalCheckIn, Date originalCheckOut) {
-        DisplayUtils.browseRooms(recommendedRooms); // Hiển thị phòng gợi ý cho người dùng
+    private void handleRecommendedStay(AlternativeStay recommendedStay, String email) {
+        System.out.printf("Rooms available from %s to %s:%n", recommendedStay.checkIn(), recommendedStay.checkOut());
+        DisplayUtils.browseRooms(recommendedStay.rooms()); // Hiển thị phòng gợi ý cho người dùng
 
         if (proceedWithReservation()) {
-            IRoom selectedRoom = selectRoom(recommendedRooms);
+            IRoom selectedRoom = selectRoom(recommendedStay.rooms());
             if (Objects.nonNull(selectedRoom)) {
-                // Đảm bảo phòng không bị đặt chồng cho cùng khoảng thời gian
-                Optional<Reservation> reservation = hotelResourceService.bookARoom(email, selectedRoom, originalCheckIn, originalCheckOut);
+                // Đặt phòng cho khoảng thời gian được gợi ý, không phải khoảng thời gian ban đầu
+                Optional<Reservation> reservation = hotelResourceService.bookARoom(email, selectedRoom,
+                        recommendedStay.checkIn(), recommendedStay.checkOut());
                 reservation.ifPresentOrElse(
                         res -> {
                             System.out.println("Reservation successful!");
                             System.out.println(res);
                         },
-                        () -> System.out.println("Failed to make a reservation.")
+                        () -> System.out.println("Failed to make a reservation. The room is already booked for those dates.")
                 );
             } else {
                 cancel("Room selection failed. Please start again.");
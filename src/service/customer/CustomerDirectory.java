@@ -0,0 +1,468 @@
+package service.customer;
+
+import Utils.SortedIterators;
+import model.Customer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+// Customer profiles packed as UTF-8 into shared 1 MB byte chunks: [u16 email][u16 first][u16 last] lengths
+// followed by the bytes. A profile costs its bytes plus a few ints of index instead of four objects;
+// Customer instances are only built for what is read.
+//
+// Emails are found through an open-addressing table of (hash, id) slots. Email and last-name prefix
+// searches use a sorted run of ids per field plus a small skip list of recent additions, which is
+// merged into a new run once it grows past a fraction of the run.
+//
+// Writers are serialized on this object. Readers take no lock: every array a reader can reach is
+// either immutable or only written before the release store that publishes the new id.
+final class CustomerDirectory {
+
+    private static final int EMAIL = 0;
+    private static final int FIRST_NAME = 1;
+    private static final int LAST_NAME = 2;
+    private static final int HEADER_BYTES = 6;
+    private static final int MAX_FIELD_BYTES = 0xffff;
+    private static final int CHUNK_BYTES = 1 << 20;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_MERGE_SIZE = 1024;
+    private static final int RUN_TO_DELTA_RATIO = 16;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    // Replaced, never modified in place, whenever one of its arrays has to grow
+    private record Storage(byte[][] chunks, long[] addresses, long[] slots) {
+    }
+
+    // Entry of a skip list of recent additions, carrying a copy of the indexed field so comparisons
+    // stay out of the arena. Search probes use id -1 or MAX_VALUE to sort before or after every
+    // profile with the same field value.
+    private record Key(int id, byte[] probe) {
+    }
+
+    private record SortedIndex(int[] run, NavigableSet<Key> delta) {
+    }
+
+    private volatile Storage storage = new Storage(new byte[1][CHUNK_BYTES], new long[INITIAL_CAPACITY],
+            new long[INITIAL_CAPACITY * 2]);
+    private volatile SortedIndex byEmail = emptyIndex(EMAIL);
+    private volatile SortedIndex byLastName = emptyIndex(LAST_NAME);
+    private volatile int size;
+
+    // Guarded by this
+    private int chunkUsed;
+    private int deltaSize;
+
+    // Emails must already be normalized; they are ASCII, as Customer validates them
+    synchronized boolean add(Customer customer) {
+        return add(customer, _ -> {
+        });
+    }
+
+    // beforeVisible sees each new customer under this lock, before any reader can find it
+    synchronized boolean add(Customer customer, Consumer<Customer> beforeVisible) {
+        boolean added = append(customer, beforeVisible);
+        mergeIfNeeded();
+        return added;
+    }
+
+    // One lock acquisition and at most one index merge for the whole batch
+    synchronized boolean[] addAll(List<Customer> customers, Consumer<Customer> beforeVisible) {
+        boolean[] added = new boolean[customers.size()];
+        for (int i = 0; i < added.length; i++) {
+            added[i] = append(customers.get(i), beforeVisible);
+        }
+        mergeIfNeeded();
+        return added;
+    }
+
+    private boolean append(Customer customer, Consumer<Customer> beforeVisible) {
+        String email = customer.email();
+        if (find(email) >= 0) {
+            return false;
+        }
+        byte[] emailBytes = email.getBytes(StandardCharsets.US_ASCII);
+        byte[] firstNameBytes = customer.firstName().getBytes(StandardCharsets.UTF_8);
+        byte[] lastNameBytes = customer.lastName().getBytes(StandardCharsets.UTF_8);
+        if (firstNameBytes.length > MAX_FIELD_BYTES || lastNameBytes.length > MAX_FIELD_BYTES
+                || emailBytes.length > MAX_FIELD_BYTES) {
+            throw new IllegalArgumentException("Customer name or email is too long.");
+        }
+
+        int id = size;
+        Storage current = ensureCapacity(HEADER_BYTES + emailBytes.length + firstNameBytes.length + lastNameBytes.length);
+        byte[] chunk = current.chunks[current.chunks.length - 1];
+        int offset = chunkUsed;
+        writeLength(chunk, offset, emailBytes.length);
+        writeLength(chunk, offset + 2, firstNameBytes.length);
+        writeLength(chunk, offset + 4, lastNameBytes.length);
+        int position = offset + HEADER_BYTES;
+        System.arraycopy(emailBytes, 0, chunk, position, emailBytes.length);
+        position += emailBytes.length;
+        System.arraycopy(firstNameBytes, 0, chunk, position, firstNameBytes.length);
+        position += firstNameBytes.length;
+        System.arraycopy(lastNameBytes, 0, chunk, position, lastNameBytes.length);
+        chunkUsed = position + lastNameBytes.length;
+        current.addresses[id] = (long) (current.chunks.length - 1) << 32 | offset;
+        beforeVisible.accept(customer);
+
+        // The release store makes the record and its address visible to any reader that sees the slot
+        insertSlot(current.slots, email.hashCode(), id);
+        size = id + 1;
+
+        byEmail.delta.add(new Key(id, emailBytes));
+        byLastName.delta.add(new Key(id, foldAll(lastNameBytes)));
+        deltaSize++;
+        return true;
+    }
+
+    private void mergeIfNeeded() {
+        if (deltaSize > Math.max(MIN_MERGE_SIZE, byEmail.run.length / RUN_TO_DELTA_RATIO)) {
+            byEmail = merge(byEmail, EMAIL);
+            byLastName = merge(byLastName, LAST_NAME);
+            deltaSize = 0;
+        }
+    }
+
+    boolean contains(String email) {
+        return find(email) >= 0;
+    }
+
+    Customer get(String email) {
+        int id = find(email);
+        return id >= 0 ? customer(id) : null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    synchronized long sizeInBytes() {
+        Storage current = storage;
+        return (long) (current.chunks.length - 1) * CHUNK_BYTES + chunkUsed
+                + (long) current.addresses.length * Long.BYTES
+                + (long) current.slots.length * Long.BYTES
+                + (long) (byEmail.run.length + byLastName.run.length) * Integer.BYTES;
+    }
+
+    // All customers in email order, starting after the given email (from the first one when null)
+    Iterator<Customer> iterateAfter(String afterEmail) {
+        SortedIndex index = byEmail;
+        Key from = Objects.isNull(afterEmail) ? null : new Key(Integer.MAX_VALUE, afterEmail.getBytes(StandardCharsets.US_ASCII));
+        Iterator<Integer> run = runIterator(index.run, Objects.isNull(from) ? 0 : lowerBound(index.run, EMAIL, from), EMAIL, null);
+        Iterator<Integer> delta = deltaIterator(Objects.isNull(from) ? index.delta : index.delta.tailSet(from, false), EMAIL, null);
+        return mapToCustomers(SortedIterators.mergeDistinct(run, delta, idOrder(EMAIL)));
+    }
+
+    List<Customer> findByEmailPrefix(String prefix, int limit) {
+        return findByPrefix(byEmail, EMAIL, prefix.getBytes(StandardCharsets.UTF_8), limit);
+    }
+
+    // Case-insensitive for ASCII letters
+    List<Customer> findByLastNamePrefix(String prefix, int limit) {
+        return findByPrefix(byLastName, LAST_NAME, foldAll(prefix.getBytes(StandardCharsets.UTF_8)), limit);
+    }
+
+    private List<Customer> findByPrefix(SortedIndex index, int field, byte[] prefix, int limit) {
+        Key from = new Key(-1, prefix);
+        Iterator<Integer> run = runIterator(index.run, lowerBound(index.run, field, from), field, prefix);
+        Iterator<Integer> delta = deltaIterator(index.delta.tailSet(from, true), field, prefix);
+        Iterator<Customer> matches = mapToCustomers(SortedIterators.mergeDistinct(run, delta, idOrder(field)));
+        List<Customer> found = new ArrayList<>(Math.min(limit, 64));
+        while (found.size() < limit && matches.hasNext()) {
+            found.add(matches.next());
+        }
+        return found;
+    }
+
+    private int find(String email) {
+        int hash = email.hashCode();
+        long[] slots = storage.slots;
+        int mask = slots.length - 1;
+        for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+            long slot = (long) SLOTS.getAcquire(slots, i);
+            if (slot == 0) {
+                return -1;
+            }
+            int id = (int) slot - 1;
+            if ((int) (slot >>> 32) == hash && emailEquals(id, email)) {
+                return id;
+            }
+        }
+    }
+
+    private boolean emailEquals(int id, String email) {
+        // Read after the slot, so this view already holds the chunk the id was written to
+        Storage current = storage;
+        long address = current.addresses[id];
+        byte[] chunk = current.chunks[(int) (address >>> 32)];
+        int offset = (int) address;
+        int length = readLength(chunk, offset);
+        if (length != email.length()) {
+            return false;
+        }
+        int start = offset + HEADER_BYTES;
+        for (int i = 0; i < length; i++) {
+            if (chunk[start + i] != email.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Customer customer(int id) {
+        Storage current = storage;
+        long address = current.addresses[id];
+        byte[] chunk = current.chunks[(int) (address >>> 32)];
+        int offset = (int) address;
+        int emailStart = offset + HEADER_BYTES;
+        int firstNameStart = emailStart + readLength(chunk, offset);
+        int lastNameStart = firstNameStart + readLength(chunk, offset + 2);
+        return new Customer(
+                new String(chunk, firstNameStart, readLength(chunk, offset + 2), StandardCharsets.UTF_8),
+                new String(chunk, lastNameStart, readLength(chunk, offset + 4), StandardCharsets.UTF_8),
+                new String(chunk, emailStart, readLength(chunk, offset), StandardCharsets.US_ASCII));
+    }
+
+    private Storage ensureCapacity(int recordBytes) {
+        Storage current = storage;
+        byte[][] chunks = current.chunks;
+        long[] addresses = current.addresses;
+        long[] slots = current.slots;
+        if (chunkUsed + recordBytes > CHUNK_BYTES) {
+            chunks = Arrays.copyOf(chunks, chunks.length + 1);
+            chunks[chunks.length - 1] = new byte[CHUNK_BYTES];
+            chunkUsed = 0;
+        }
+        if (size == addresses.length) {
+            addresses = Arrays.copyOf(addresses, addresses.length * 2);
+        }
+        // Kept at most half full, so probes stay short
+        if ((size + 1) * 2 > slots.length) {
+            slots = rehash(slots, slots.length * 2);
+        }
+        if (chunks != current.chunks || addresses != current.addresses || slots != current.slots) {
+            current = new Storage(chunks, addresses, slots);
+            storage = current;
+        }
+        return current;
+    }
+
+    private static long[] rehash(long[] slots, int capacity) {
+        long[] resized = new long[capacity];
+        for (long slot : slots) {
+            if (slot != 0) {
+                insertSlot(resized, (int) (slot >>> 32), (int) slot - 1);
+            }
+        }
+        return resized;
+    }
+
+    private static void insertSlot(long[] slots, int hash, int id) {
+        int mask = slots.length - 1;
+        int i = spread(hash) & mask;
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        SLOTS.setRelease(slots, i, (long) hash << 32 | (id + 1L));
+    }
+
+    private SortedIndex merge(SortedIndex index, int field) {
+        int[] run = index.run;
+        int[] merged = new int[run.length + index.delta.size()];
+        int position = 0;
+        int count = 0;
+        for (Key key : index.delta) {
+            while (position < run.length && compare(field, run[position], null, key.id, key.probe) < 0) {
+                merged[count++] = run[position++];
+            }
+            merged[count++] = key.id;
+        }
+        System.arraycopy(run, position, merged, count, run.length - position);
+        return new SortedIndex(merged, new ConcurrentSkipListSet<>(keyOrder(field)));
+    }
+
+    private SortedIndex emptyIndex(int field) {
+        return new SortedIndex(new int[0], new ConcurrentSkipListSet<>(keyOrder(field)));
+    }
+
+    // First run position whose field sorts at or after the probe key
+    private int lowerBound(int[] run, int field, Key key) {
+        int low = 0;
+        int high = run.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(field, run[mid], null, key.id, key.probe) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private Iterator<Integer> runIterator(int[] run, int from, int field, byte[] prefix) {
+        return new Iterator<>() {
+            private int position = from;
+
+            @Override
+            public boolean hasNext() {
+                return position < run.length && (Objects.isNull(prefix) || startsWith(field, run[position], prefix));
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return run[position++];
+            }
+        };
+    }
+
+    private Iterator<Integer> deltaIterator(NavigableSet<Key> keys, int field, byte[] prefix) {
+        Iterator<Key> iterator = keys.iterator();
+        return new Iterator<>() {
+            private Key next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return Objects.nonNull(next);
+            }
+
+            @Override
+            public Integer next() {
+                if (Objects.isNull(next)) {
+                    throw new NoSuchElementException();
+                }
+                int id = next.id;
+                next = advance();
+                return id;
+            }
+
+            private Key advance() {
+                Key key = iterator.hasNext() ? iterator.next() : null;
+                return Objects.isNull(key) || Objects.isNull(prefix) || startsWith(field, key.id, prefix) ? key : null;
+            }
+        };
+    }
+
+    private Iterator<Customer> mapToCustomers(Iterator<Integer> ids) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return ids.hasNext();
+            }
+
+            @Override
+            public Customer next() {
+                return customer(ids.next());
+            }
+        };
+    }
+
+    private Comparator<Integer> idOrder(int field) {
+        return (first, second) -> compare(field, first, null, second, null);
+    }
+
+    private Comparator<Key> keyOrder(int field) {
+        return (first, second) -> compare(field, first.id, first.probe, second.id, second.probe);
+    }
+
+    // Unsigned byte order of the field, ASCII case folded for last names, then id; a non-null probe
+    // stands in for the field bytes of its side
+    private int compare(int field, int firstId, byte[] firstProbe, int secondId, byte[] secondProbe) {
+        Storage current = storage;
+        byte[] firstBytes = Objects.nonNull(firstProbe) ? firstProbe : chunkOf(current, firstId);
+        int firstStart = Objects.nonNull(firstProbe) ? 0 : fieldStart(current, firstId, field);
+        int firstLength = Objects.nonNull(firstProbe) ? firstProbe.length : fieldLength(current, firstId, field);
+        byte[] secondBytes = Objects.nonNull(secondProbe) ? secondProbe : chunkOf(current, secondId);
+        int secondStart = Objects.nonNull(secondProbe) ? 0 : fieldStart(current, secondId, field);
+        int secondLength = Objects.nonNull(secondProbe) ? secondProbe.length : fieldLength(current, secondId, field);
+        boolean folded = field == LAST_NAME;
+        for (int i = 0; i < Math.min(firstLength, secondLength); i++) {
+            byte first = firstBytes[firstStart + i];
+            byte second = secondBytes[secondStart + i];
+            int difference = ((folded ? fold(first) : first) & 0xff) - ((folded ? fold(second) : second) & 0xff);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        if (firstLength != secondLength) {
+            return firstLength - secondLength;
+        }
+        return Integer.compare(firstId, secondId);
+    }
+
+    private boolean startsWith(int field, int id, byte[] prefix) {
+        Storage current = storage;
+        int length = fieldLength(current, id, field);
+        if (length < prefix.length) {
+            return false;
+        }
+        byte[] chunk = chunkOf(current, id);
+        int start = fieldStart(current, id, field);
+        for (int i = 0; i < prefix.length; i++) {
+            byte value = field == LAST_NAME ? fold(chunk[start + i]) : chunk[start + i];
+            if (value != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] chunkOf(Storage current, int id) {
+        return current.chunks[(int) (current.addresses[id] >>> 32)];
+    }
+
+    private static int fieldStart(Storage current, int id, int field) {
+        byte[] chunk = chunkOf(current, id);
+        int offset = (int) current.addresses[id];
+        int start = offset + HEADER_BYTES;
+        for (int preceding = 0; preceding < field; preceding++) {
+            start += readLength(chunk, offset + preceding * 2);
+        }
+        return start;
+    }
+
+    private static int fieldLength(Storage current, int id, int field) {
+        return readLength(chunkOf(current, id), (int) current.addresses[id] + field * 2);
+    }
+
+    private static int readLength(byte[] chunk, int offset) {
+        return (chunk[offset] & 0xff) << 8 | chunk[offset + 1] & 0xff;
+    }
+
+    private static void writeLength(byte[] chunk, int offset, int length) {
+        chunk[offset] = (byte) (length >>> 8);
+        chunk[offset + 1] = (byte) length;
+    }
+
+    private static byte[] foldAll(byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = fold(bytes[i]);
+        }
+        return bytes;
+    }
+
+    private static byte fold(byte value) {
+        return value >= 'A' && value <= 'Z' ? (byte) (value + ('a' - 'A')) : value;
+    }
+
+    // Emails that differ only in a counter have nearby String hashes; mixing keeps linear probes short
+    private static int spread(int hash) {
+        int mixed = hash * 0x9e3779b9;
+        return mixed ^ (mixed >>> 16);
+    }
+}
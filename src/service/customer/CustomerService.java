@@ -1,16 +1,38 @@
 package service.customer;
 
+import Utils.SortedIterators;
 import model.Customer;
+import model.Page;
+import service.HotelEventListener;
+import service.metrics.HotelMetrics;
+import service.persistence.MappedSnapshot;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class CustomerService {
 
     private static final CustomerService CUSTOMER_SERVICE_INSTANCE = new CustomerService();
 
-    private final Map<String, Customer> customerMap = new HashMap<>();
+    // Kept in email order so listings can be paged with the last email as the cursor
+    private final CustomerDirectory directory = new CustomerDirectory();
+    private final List<HotelEventListener> listeners = new CopyOnWriteArrayList<>();
+    // Customers registered since startup; archived ones are counted by the snapshot
+    private final LongAdder registeredCustomers = new LongAdder();
+    // Customers restored from a mapped snapshot are looked up in the mapping and cached on first access
+    private volatile MappedSnapshot archive;
+    // Prefix searches need every archived customer in the directory; they are copied on the first search
+    private volatile boolean archiveInDirectory;
 
-    private CustomerService() {}
+    private CustomerService() {
+        HotelMetrics metrics = HotelMetrics.getMetricsInstance();
+        metrics.registerGauge("customers", this::getCustomerCount);
+        metrics.registerGauge("customerDirectoryBytes", this::getDirectorySizeInBytes);
+    }
 
     public static CustomerService getCustomerServiceInstance() {
         return CUSTOMER_SERVICE_INSTANCE;
@@ -18,21 +40,167 @@ public class CustomerService {
 
     public void addCustomer(final String email, final String firstName, final String lastName) {
         String normalizedEmail = normalizeEmail(email);
-        customerMap.computeIfAbsent(normalizedEmail, e -> new Customer(firstName, lastName, e));
+        if (directory.contains(normalizedEmail) || findArchivedCustomer(normalizedEmail).isPresent()) {
+            return;
+        }
+        var customer = new Customer(firstName, lastName, normalizedEmail);
+        if (directory.add(customer, this::announce)) {
+            registeredCustomers.increment();
+            listeners.forEach(HotelEventListener::afterCommit);
+        }
+    }
+
+    // Bulk variant of addCustomer for already validated customers: one directory update and one
+    // listener commit for the batch. An entry is false when that email is already registered.
+    public boolean[] addCustomers(List<Customer> customers) {
+        List<Customer> fresh = new ArrayList<>(customers.size());
+        int[] positions = new int[customers.size()];
+        for (int i = 0; i < positions.length; i++) {
+            Customer customer = customers.get(i);
+            String normalizedEmail = normalizeEmail(customer.email());
+            if (findArchivedCustomer(normalizedEmail).isEmpty()) {
+                positions[fresh.size()] = i;
+                fresh.add(normalizedEmail.equals(customer.email())
+                        ? customer
+                        : new Customer(customer.firstName(), customer.lastName(), normalizedEmail));
+            }
+        }
+        boolean[] freshAdded = directory.addAll(fresh, this::announce);
+
+        boolean[] added = new boolean[customers.size()];
+        int addedCount = 0;
+        for (int i = 0; i < freshAdded.length; i++) {
+            if (freshAdded[i]) {
+                added[positions[i]] = true;
+                addedCount++;
+            }
+        }
+        registeredCustomers.add(addedCount);
+        if (addedCount > 0) {
+            listeners.forEach(HotelEventListener::afterCommit);
+        }
+        return added;
+    }
+
+    public void attachSnapshot(MappedSnapshot snapshot) {
+        archive = snapshot;
+    }
+
+    public void addListener(HotelEventListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "Listener must not be null"));
     }
 
     public Optional<Customer> getCustomer(final String email) {
-        return Optional.ofNullable(customerMap.get(normalizeEmail(email)));
+        String normalizedEmail = normalizeEmail(email);
+        Customer customer = directory.get(normalizedEmail);
+        if (Objects.nonNull(customer)) {
+            return Optional.of(customer);
+        }
+        Optional<Customer> archived = findArchivedCustomer(normalizedEmail);
+        archived.ifPresent(directory::add);
+        return archived;
+    }
+
+    // Front-desk lookups: at most limit customers whose email, or last name ignoring ASCII case,
+    // starts with the prefix, in index order
+    public List<Customer> findCustomersByEmailPrefix(String emailPrefix, int limit) {
+        checkLimit(limit);
+        loadArchiveIntoDirectory();
+        return directory.findByEmailPrefix(normalizeEmail(emailPrefix), limit);
+    }
+
+    public List<Customer> findCustomersByLastNamePrefix(String lastNamePrefix, int limit) {
+        checkLimit(limit);
+        loadArchiveIntoDirectory();
+        return directory.findByLastNamePrefix(Objects.requireNonNull(lastNamePrefix, "Prefix must not be null").trim(), limit);
+    }
+
+    public long getCustomerCount() {
+        MappedSnapshot snapshot = archive;
+        return registeredCustomers.sum() + (Objects.isNull(snapshot) ? 0 : snapshot.customerCount());
+    }
+
+    public long getDirectorySizeInBytes() {
+        return directory.sizeInBytes();
     }
 
     public Collection<Customer> getAllCustomers() {
-        return Collections.unmodifiableCollection(customerMap.values());
+        return streamAllCustomers().toList();
+    }
+
+    // Lazily merges loaded and archived customers in email order
+    public Stream<Customer> streamAllCustomers() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(customersAfter(null),
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    public Page<Customer> getCustomersPage(String afterEmail, int pageSize) {
+        return Page.take(customersAfter(afterEmail), pageSize, Customer::email);
+    }
+
+    private Iterator<Customer> customersAfter(String afterEmail) {
+        Iterator<Customer> loaded = directory.iterateAfter(afterEmail);
+        MappedSnapshot snapshot = archive;
+        if (Objects.isNull(snapshot)) {
+            return loaded;
+        }
+        int first = 0;
+        if (Objects.nonNull(afterEmail)) {
+            first = snapshot.customersFrom(afterEmail);
+            if (first < snapshot.customerCount() && snapshot.customerEmail(first).equals(afterEmail)) {
+                first++;
+            }
+        }
+        Iterator<Customer> archived = IntStream.range(first, snapshot.customerCount())
+                .mapToObj(snapshot::customer)
+                .iterator();
+        return SortedIterators.mergeDistinct(loaded, archived, Comparator.comparing(Customer::email));
+    }
+
+    // Runs under the directory's lock, before the customer can be found
+    private void announce(Customer customer) {
+        listeners.forEach(listener -> listener.onCustomerAdded(customer));
+    }
+
+    private Optional<Customer> findArchivedCustomer(String normalizedEmail) {
+        MappedSnapshot snapshot = archive;
+        if (Objects.isNull(snapshot)) {
+            return Optional.empty();
+        }
+        int archivedCustomer = snapshot.findCustomer(normalizedEmail);
+        return archivedCustomer >= 0 ? Optional.of(snapshot.customer(archivedCustomer)) : Optional.empty();
+    }
+
+    private synchronized void loadArchiveIntoDirectory() {
+        MappedSnapshot snapshot = archive;
+        if (archiveInDirectory || Objects.isNull(snapshot)) {
+            return;
+        }
+        for (int archivedCustomer = 0; archivedCustomer < snapshot.customerCount(); archivedCustomer++) {
+            if (!directory.contains(snapshot.customerEmail(archivedCustomer))) {
+                directory.add(snapshot.customer(archivedCustomer));
+            }
+        }
+        archiveInDirectory = true;
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive.");
+        }
     }
 
-    private String normalizeEmail(final String email) {
-        return Optional.ofNullable(email)
-                .map(String::trim)
-                .map(String::toLowerCase)
-                .orElseThrow(() -> new IllegalArgumentException("Email must not be null or empty."));
+    // Returns the email itself when it is already trimmed and lower case, so the usual lookup allocates nothing
+    private static String normalizeEmail(final String email) {
+        if (Objects.isNull(email)) {
+            throw new IllegalArgumentException("Email must not be null or empty.");
+        }
+        int length = email.length();
+        boolean normalized = length > 0 && email.charAt(0) > ' ' && email.charAt(length - 1) > ' ';
+        for (int i = 0; normalized && i < length; i++) {
+            char c = email.charAt(i);
+            normalized = c < 0x80 && (c < 'A' || c > 'Z');
+        }
+        return normalized ? email : email.trim().toLowerCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,188 @@
+package service.importer;
+
+import service.customer.CustomerService;
+import service.reservation.ReservationService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Loads CSV or TSV files (by extension) in three stages: a reader thread cuts the file into chunks of
+// lines, parser workers parse and validate chunks in parallel, and the calling thread applies the
+// parsed chunks in file order, each with one batched update of the services (and so one journal
+// write when persistence is enabled). Blank lines and lines starting with '#' are skipped, and a
+// header line is recognized by its first column name.
+public class BulkImporter {
+
+    private static final int CHUNK_ROWS = 4096;
+    private static final int MAX_REPORTED_REJECTIONS = 500;
+    private static final int WORKERS = Integer.getInteger("hotel.import.workers", Runtime.getRuntime().availableProcessors());
+
+    private final ReservationService reservationService;
+    private final CustomerService customerService;
+
+    public BulkImporter(ReservationService reservationService, CustomerService customerService) {
+        this.reservationService = reservationService;
+        this.customerService = customerService;
+    }
+
+    public ImportReport importRooms(Path file) throws IOException {
+        return importFile(file, new RoomRecords(reservationService));
+    }
+
+    public ImportReport importCustomers(Path file) throws IOException {
+        return importFile(file, new CustomerRecords(customerService));
+    }
+
+    public ImportReport importReservations(Path file) throws IOException {
+        return importFile(file, new ReservationRecords(reservationService, customerService));
+    }
+
+    private record LineChunk(long[] lineNumbers, String[] lines) {
+    }
+
+    private record ParsedChunk<T>(int rowsRead, List<T> records, long[] recordLines, List<ImportReport.Rejection> rejections) {
+    }
+
+    private <T> ImportReport importFile(Path file, RecordFormat<T> format) throws IOException {
+        char delimiter = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".tsv") ? '\t' : ',';
+        long started = System.nanoTime();
+        long rowsRead = 0;
+        long rowsImported = 0;
+        long rowsRejected = 0;
+        List<ImportReport.Rejection> rejections = new ArrayList<>();
+
+        // Bounded, so a fast reader cannot queue up the whole file ahead of the apply stage
+        BlockingQueue<Future<ParsedChunk<T>>> parsed = new ArrayBlockingQueue<>(WORKERS * 2);
+        try (ExecutorService workers = Executors.newFixedThreadPool(WORKERS,
+                Thread.ofPlatform().name("import-parser-", 0).daemon().factory())) {
+            Thread reader = Thread.ofPlatform()
+                    .name("import-reader")
+                    .daemon()
+                    .start(() -> readChunks(file, delimiter, format, workers, parsed));
+            try {
+                for (ParsedChunk<T> chunk = next(parsed); Objects.nonNull(chunk); chunk = next(parsed)) {
+                    rowsRead += chunk.rowsRead;
+                    rowsRejected += chunk.rejections.size();
+                    keep(rejections, chunk.rejections);
+
+                    boolean[] applied = format.apply(chunk.records);
+                    List<ImportReport.Rejection> refused = new ArrayList<>();
+                    for (int i = 0; i < applied.length; i++) {
+                        if (applied[i]) {
+                            rowsImported++;
+                        } else {
+                            refused.add(new ImportReport.Rejection(chunk.recordLines[i], format.refusedReason()));
+                        }
+                    }
+                    rowsRejected += refused.size();
+                    keep(rejections, refused);
+                }
+            } finally {
+                reader.interrupt();
+            }
+        }
+
+        rejections.sort(Comparator.comparingLong(ImportReport.Rejection::lineNumber));
+        return new ImportReport(file.toString(), rowsRead, rowsImported, rejections, rowsRejected, System.nanoTime() - started);
+    }
+
+    private <T> void readChunks(Path file, char delimiter, RecordFormat<T> format, ExecutorService workers,
+                                BlockingQueue<Future<ParsedChunk<T>>> parsed) {
+        try {
+            try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                long[] lineNumbers = new long[CHUNK_ROWS];
+                String[] lines = new String[CHUNK_ROWS];
+                int count = 0;
+                long lineNumber = 0;
+                for (String line = in.readLine(); Objects.nonNull(line); line = in.readLine()) {
+                    lineNumber++;
+                    if (line.isBlank() || line.startsWith("#")
+                            || lineNumber == 1 && DelimitedLines.isHeader(line, delimiter, format.firstColumn())) {
+                        continue;
+                    }
+                    lineNumbers[count] = lineNumber;
+                    lines[count++] = line;
+                    if (count == CHUNK_ROWS) {
+                        var chunk = new LineChunk(lineNumbers, lines);
+                        parsed.put(workers.submit(() -> parse(chunk, CHUNK_ROWS, delimiter, format)));
+                        lineNumbers = new long[CHUNK_ROWS];
+                        lines = new String[CHUNK_ROWS];
+                        count = 0;
+                    }
+                }
+                if (count > 0) {
+                    var chunk = new LineChunk(lineNumbers, lines);
+                    int rows = count;
+                    parsed.put(workers.submit(() -> parse(chunk, rows, delimiter, format)));
+                }
+            } catch (IOException | RuntimeException e) {
+                parsed.put(CompletableFuture.failedFuture(e));
+                return;
+            }
+            // A null chunk marks the end of the file
+            parsed.put(CompletableFuture.completedFuture(null));
+        } catch (InterruptedException e) {
+            // The import was abandoned by the apply stage
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <T> ParsedChunk<T> parse(LineChunk chunk, int rows, char delimiter, RecordFormat<T> format) {
+        List<T> records = new ArrayList<>(rows);
+        long[] recordLines = new long[rows];
+        List<ImportReport.Rejection> rejections = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            String[] fields = DelimitedLines.split(chunk.lines[i], delimiter);
+            try {
+                if (fields.length != format.columns()) {
+                    throw new IllegalArgumentException("Expected " + format.columns() + " columns but found " + fields.length);
+                }
+                records.add(format.parse(fields));
+                recordLines[records.size() - 1] = chunk.lineNumbers[i];
+            } catch (IllegalArgumentException e) {
+                rejections.add(new ImportReport.Rejection(chunk.lineNumbers[i], e.getMessage()));
+            }
+        }
+        return new ParsedChunk<>(rows, records, Arrays.copyOf(recordLines, records.size()), rejections);
+    }
+
+    private static <T> ParsedChunk<T> next(BlockingQueue<Future<ParsedChunk<T>>> parsed) throws IOException {
+        try {
+            return parsed.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        } catch (ExecutionException e) {
+            switch (e.getCause()) {
+                case IOException io -> throw io;
+                case RuntimeException runtime -> throw runtime;
+                case Error error -> throw error;
+                default -> throw new UncheckedIOException(new IOException(e.getCause()));
+            }
+        }
+    }
+
+    private static void keep(List<ImportReport.Rejection> kept, List<ImportReport.Rejection> rejections) {
+        for (int i = 0; i < rejections.size() && kept.size() < MAX_REPORTED_REJECTIONS; i++) {
+            kept.add(rejections.get(i));
+        }
+    }
+}
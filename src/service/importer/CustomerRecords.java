@@ -0,0 +1,51 @@
+package service.importer;
+
+import model.Customer;
+import service.customer.CustomerService;
+import validation.Validation;
+
+import java.util.List;
+
+// email, firstName, lastName
+class CustomerRecords implements RecordFormat<Customer> {
+
+    private final CustomerService customerService;
+
+    CustomerRecords(CustomerService customerService) {
+        this.customerService = customerService;
+    }
+
+    @Override
+    public String firstColumn() {
+        return "email";
+    }
+
+    @Override
+    public int columns() {
+        return 3;
+    }
+
+    @Override
+    public Customer parse(String[] fields) {
+        String email = fields[0].strip();
+        if (!Validation.isEmailAddress(email)) {
+            throw new IllegalArgumentException("Invalid email: " + fields[0]);
+        }
+        String firstName = fields[1].strip();
+        String lastName = fields[2].strip();
+        if (firstName.isEmpty() || lastName.isEmpty()) {
+            throw new IllegalArgumentException("First and last name must not be empty");
+        }
+        return new Customer(firstName, lastName, email);
+    }
+
+    @Override
+    public boolean[] apply(List<Customer> customers) {
+        return customerService.addCustomers(customers);
+    }
+
+    @Override
+    public String refusedReason() {
+        return "Customer with this email already exists";
+    }
+}
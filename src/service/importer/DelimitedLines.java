@@ -0,0 +1,55 @@
+package service.importer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Splits CSV/TSV lines without a regex. A field may be wrapped in double quotes, which are then
+// allowed to contain the delimiter; a doubled quote inside stands for one quote.
+class DelimitedLines {
+
+    private DelimitedLines() {}
+
+    static String[] split(String line, char delimiter) {
+        List<String> fields = new ArrayList<>(8);
+        if (line.indexOf('"') < 0) {
+            int start = 0;
+            for (int end = line.indexOf(delimiter); end >= 0; end = line.indexOf(delimiter, start)) {
+                fields.add(line.substring(start, end));
+                start = end + 1;
+            }
+            fields.add(line.substring(start));
+            return fields.toArray(String[]::new);
+        }
+
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(String[]::new);
+    }
+
+    static boolean isHeader(String line, char delimiter, String firstColumn) {
+        int end = line.indexOf(delimiter);
+        String first = (end < 0 ? line : line.substring(0, end)).strip();
+        return first.equalsIgnoreCase(firstColumn) || first.equalsIgnoreCase('"' + firstColumn + '"');
+    }
+}
@@ -0,0 +1,24 @@
+package service.importer;
+
+import java.util.List;
+
+// Outcome of one bulk import. Every rejected row is counted, but only the first few hundred are kept with their reason.
+public record ImportReport(String source, long rowsRead, long rowsImported, List<Rejection> rejections,
+                           long rowsRejected, long elapsedNanos) {
+
+    public record Rejection(long lineNumber, String reason) {
+    }
+
+    public ImportReport {
+        rejections = List.copyOf(rejections);
+    }
+
+    public double rowsPerSecond() {
+        return elapsedNanos > 0 ? rowsRead * 1e9 / elapsedNanos : 0;
+    }
+
+    public String summary() {
+        return String.format("%s: imported %,d of %,d rows in %.2f s (%,.0f rows/s), %,d rejected",
+                source, rowsImported, rowsRead, elapsedNanos / 1e9, rowsPerSecond(), rowsRejected);
+    }
+}
@@ -0,0 +1,20 @@
+package service.importer;
+
+import java.util.List;
+
+// One kind of import file: how a row is parsed and validated, and how a chunk of rows is applied
+interface RecordFormat<T> {
+
+    // Name of the first column, used to recognize an optional header line
+    String firstColumn();
+
+    int columns();
+
+    // Runs on the parser workers; throws IllegalArgumentException with the reason for a bad row
+    T parse(String[] fields);
+
+    // Runs on the importing thread, in file order; false for a record the services refused
+    boolean[] apply(List<T> records);
+
+    String refusedReason();
+}
@@ -0,0 +1,62 @@
+package service.importer;
+
+import Utils.DateUtils;
+import model.Customer;
+import model.IRoom;
+import model.Reservation;
+import service.customer.CustomerService;
+import service.reservation.ReservationService;
+
+import java.util.List;
+
+// email, roomNumber, checkIn, checkOut; dates as MM/dd/yyyy or yyyy-MM-dd.
+// The customers and rooms must already exist, so their files are imported first.
+class ReservationRecords implements RecordFormat<Reservation> {
+
+    private final ReservationService reservationService;
+    private final CustomerService customerService;
+
+    ReservationRecords(ReservationService reservationService, CustomerService customerService) {
+        this.reservationService = reservationService;
+        this.customerService = customerService;
+    }
+
+    @Override
+    public String firstColumn() {
+        return "email";
+    }
+
+    @Override
+    public int columns() {
+        return 4;
+    }
+
+    @Override
+    public Reservation parse(String[] fields) {
+        int checkInDay = DateUtils.parseEpochDay(fields[2].strip());
+        int checkOutDay = DateUtils.parseEpochDay(fields[3].strip());
+        if (checkInDay == DateUtils.INVALID_DAY || checkOutDay == DateUtils.INVALID_DAY) {
+            throw new IllegalArgumentException("Invalid check-in or check-out date");
+        }
+        reservationService.checkBookingWindow(checkInDay, checkOutDay);
+        String email = fields[0].strip();
+        if (email.isEmpty()) {
+            throw new IllegalArgumentException("Email must not be empty");
+        }
+        Customer customer = customerService.getCustomer(email)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown customer: " + email));
+        IRoom room = reservationService.getRoom(fields[1].strip())
+                .orElseThrow(() -> new IllegalArgumentException("Unknown room: " + fields[1]));
+        return new Reservation(customer, room, checkInDay, checkOutDay);
+    }
+
+    @Override
+    public boolean[] apply(List<Reservation> reservations) {
+        return reservationService.addReservations(reservations);
+    }
+
+    @Override
+    public String refusedReason() {
+        return "Room is already booked for those dates";
+    }
+}
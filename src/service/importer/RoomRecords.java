@@ -0,0 +1,72 @@
+package service.importer;
+
+import model.FreeRoom;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+import service.reservation.ReservationService;
+
+import java.util.List;
+import java.util.Objects;
+
+// roomNumber, price, roomType (SINGLE/DOUBLE or 1/2); a price of 0 makes a free room
+class RoomRecords implements RecordFormat<IRoom> {
+
+    private final ReservationService reservationService;
+
+    RoomRecords(ReservationService reservationService) {
+        this.reservationService = reservationService;
+    }
+
+    @Override
+    public String firstColumn() {
+        return "roomNumber";
+    }
+
+    @Override
+    public int columns() {
+        return 3;
+    }
+
+    @Override
+    public IRoom parse(String[] fields) {
+        String roomNumber = fields[0].strip();
+        if (roomNumber.isEmpty()) {
+            throw new IllegalArgumentException("Room number must not be empty");
+        }
+        double price;
+        try {
+            price = Double.parseDouble(fields[1].strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid price: " + fields[1]);
+        }
+        if (!Double.isFinite(price) || price < 0) {
+            throw new IllegalArgumentException("Invalid price: " + fields[1]);
+        }
+        RoomType roomType = parseRoomType(fields[2].strip());
+        return price == 0 ? new FreeRoom(roomNumber, roomType) : new Room(roomNumber, price, roomType);
+    }
+
+    @Override
+    public boolean[] apply(List<IRoom> rooms) {
+        return reservationService.addRooms(rooms);
+    }
+
+    @Override
+    public String refusedReason() {
+        return "Room number already exists";
+    }
+
+    private static RoomType parseRoomType(String value) {
+        RoomType byLabel = RoomType.fromLabel(value);
+        if (Objects.nonNull(byLabel)) {
+            return byLabel;
+        }
+        for (RoomType roomType : RoomType.values()) {
+            if (roomType.name().equalsIgnoreCase(value)) {
+                return roomType;
+            }
+        }
+        throw new IllegalArgumentException("Invalid room type: " + value);
+    }
+}
@@ -0,0 +1,24 @@
+package service.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+// Emitted for every registered gauge every 10 seconds while a recording runs
+@Name("hotel.Gauge")
+@Label("Hotel Gauge")
+@Category("Hotel")
+@Description("Current value of a hotel gauge such as the room or reservation count")
+@Period("10 s")
+@StackTrace(false)
+class GaugeEvent extends jdk.jfr.Event {
+
+    @Label("Gauge")
+    String gauge;
+
+    @Label("Value")
+    long value;
+}
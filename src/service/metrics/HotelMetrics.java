@@ -0,0 +1,107 @@
+package service.metrics;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+// Latency histogram and call counter per API operation, plus gauges the services register for their
+// sizes. Timing a call is:
+//
+//   long started = metrics.start();
+//   try { ... } finally { metrics.record(Operation.FIND_A_ROOM, started); }
+//
+// which allocates nothing unless a JFR recording has hotel.Operation enabled. Everything is
+// readable as a text dump and, under JFR, as hotel.Operation and periodic hotel.Gauge events.
+public class HotelMetrics {
+
+    private static final EventType OPERATION_EVENT = EventType.getEventType(OperationEvent.class);
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final HotelMetrics METRICS_INSTANCE = new HotelMetrics();
+
+    private record Gauge(String name, LongSupplier value) {
+    }
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length];
+    private final List<Gauge> gauges = new CopyOnWriteArrayList<>();
+    private final long startedNanos = System.nanoTime();
+
+    private HotelMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+        FlightRecorder.addPeriodicEvent(GaugeEvent.class, this::emitGaugeEvents);
+    }
+
+    public static HotelMetrics getMetricsInstance() {
+        return METRICS_INSTANCE;
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void record(Operation operation, long startedNanos) {
+        long latency = System.nanoTime() - startedNanos;
+        latencies[operation.ordinal()].record(latency);
+        if (OPERATION_EVENT.isEnabled()) {
+            var event = new OperationEvent();
+            event.operation = operation.metricName();
+            event.latency = latency;
+            event.commit();
+        }
+    }
+
+    public LatencyHistogram latencies(Operation operation) {
+        return latencies[operation.ordinal()];
+    }
+
+    // Gauges are read when the metrics are dumped, never on the recording path
+    public void registerGauge(String name, LongSupplier value) {
+        Objects.requireNonNull(name, "Gauge name must not be null");
+        Objects.requireNonNull(value, "Gauge value must not be null");
+        gauges.removeIf(gauge -> gauge.name.equals(name));
+        gauges.add(new Gauge(name, value));
+    }
+
+    public Map<String, Long> readGauges() {
+        Map<String, Long> values = new TreeMap<>();
+        gauges.forEach(gauge -> values.put(gauge.name, gauge.value.getAsLong()));
+        return values;
+    }
+
+    // Operations that were called at least once, then every gauge
+    public String dump() {
+        double uptimeSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startedNanos));
+        var out = new StringBuilder(2048);
+        out.append(String.format("%-26s %12s %10s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "per sec", "mean us", "p50 us", "p99 us", "p99.9 us", "max us"));
+        for (Operation operation : OPERATIONS) {
+            LatencyHistogram histogram = latencies(operation);
+            long count = histogram.count();
+            if (count > 0) {
+                out.append(String.format("%-26s %,12d %10.1f %9d %9d %9d %9d %9d%n",
+                        operation.metricName(), count, count / uptimeSeconds, histogram.meanMicros(),
+                        histogram.percentileMicros(50), histogram.percentileMicros(99),
+                        histogram.percentileMicros(99.9), histogram.maxMicros()));
+            }
+        }
+        readGauges().forEach((name, value) -> out.append(String.format("%-26s %,12d%n", name, value)));
+        return out.toString();
+    }
+
+    private void emitGaugeEvents() {
+        for (Gauge gauge : gauges) {
+            var event = new GaugeEvent();
+            event.gauge = gauge.name;
+            event.value = gauge.value.getAsLong();
+            event.commit();
+        }
+    }
+}
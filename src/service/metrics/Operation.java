@@ -0,0 +1,36 @@
+package service.metrics;
+
+// Timed calls of the public API, named after the resource methods
+public enum Operation {
+    GET_CUSTOMER("getCustomer"),
+    CREATE_A_CUSTOMER("createACustomer"),
+    GET_ROOM("getRoom"),
+    FIND_A_ROOM("findARoom"),
+    FIND_ROOMS("findRooms"),
+    FIND_ALTERNATIVE_STAYS("findAlternativeStays"),
+    BOOK_A_ROOM("bookARoom"),
+    BOOK_ROOMS("bookRooms"),
+    BOOK_A_ROOM_OF_TYPE("bookARoomOfType"),
+    HAS_FREE_ROOMS("hasFreeRooms"),
+    CANCEL_RESERVATION("cancelReservation"),
+    MODIFY_RESERVATION("modifyReservation"),
+    GET_CUSTOMERS_RESERVATIONS("getCustomersReservations"),
+    ADD_ROOM("addRoom"),
+    GET_ALL_ROOMS("getAllRooms"),
+    GET_ALL_CUSTOMERS("getAllCustomers"),
+    GET_ROOMS_PAGE("getRoomsPage"),
+    GET_CUSTOMERS_PAGE("getCustomersPage"),
+    GET_RESERVATIONS_PAGE("getReservationsPage"),
+    FIND_CUSTOMERS_BY_PREFIX("findCustomersByPrefix"),
+    GET_OCCUPANCY_STATS("getOccupancyStats");
+
+    private final String metricName;
+
+    Operation(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String metricName() {
+        return metricName;
+    }
+}
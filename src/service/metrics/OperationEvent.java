@@ -0,0 +1,24 @@
+package service.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// One API call, committed only while a JFR recording has the event enabled
+@Name("hotel.Operation")
+@Label("Hotel Operation")
+@Category("Hotel")
+@Description("A timed call of the hotel API")
+@StackTrace(false)
+class OperationEvent extends jdk.jfr.Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+}
@@ -0,0 +1,71 @@
+package service.persistence;
+
+import model.Customer;
+import model.FreeRoom;
+import model.IRoom;
+import model.Reservation;
+import model.Room;
+import model.RoomType;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// Binary layout of rooms, customers and reservations shared by the journal and the snapshots
+final class HotelRecordCodec {
+
+    static final byte ROOM = 1;
+    static final byte CUSTOMER = 2;
+    static final byte RESERVATION = 3;
+    // A cancellation is a stored reservation; a modification is the previous one followed by the updated one
+    static final byte CANCELLATION = 4;
+    static final byte MODIFICATION = 5;
+
+    private static final byte PAID_ROOM = 0;
+    private static final byte FREE_ROOM = 1;
+
+    private HotelRecordCodec() {}
+
+    static void writeRoom(DataOutput out, IRoom room) throws IOException {
+        out.writeUTF(room.getRoomNumber());
+        out.writeByte(room instanceof FreeRoom ? FREE_ROOM : PAID_ROOM);
+        out.writeDouble(room.getRoomPrice());
+        out.writeByte(room.getRoomType().ordinal());
+    }
+
+    static IRoom readRoom(DataInput in) throws IOException {
+        String roomNumber = in.readUTF();
+        byte kind = in.readByte();
+        double price = in.readDouble();
+        RoomType roomType = RoomType.values()[in.readByte()];
+        return kind == FREE_ROOM ? new FreeRoom(roomNumber, roomType) : new Room(roomNumber, price, roomType);
+    }
+
+    static void writeCustomer(DataOutput out, Customer customer) throws IOException {
+        out.writeUTF(customer.email());
+        out.writeUTF(customer.firstName());
+        out.writeUTF(customer.lastName());
+    }
+
+    static Customer readCustomer(DataInput in) throws IOException {
+        String email = in.readUTF();
+        String firstName = in.readUTF();
+        String lastName = in.readUTF();
+        return new Customer(firstName, lastName, email);
+    }
+
+    // Reservations refer to their customer and room by key; both are restored before them
+    static void writeReservation(DataOutput out, Reservation reservation) throws IOException {
+        out.writeUTF(reservation.customer().email());
+        out.writeUTF(reservation.room().getRoomNumber());
+        out.writeInt(reservation.checkInDay());
+        out.writeInt(reservation.checkOutDay());
+    }
+
+    static StoredReservation readReservation(DataInput in) throws IOException {
+        return new StoredReservation(in.readUTF(), in.readUTF(), in.readInt(), in.readInt());
+    }
+
+    record StoredReservation(String email, String roomNumber, int checkInDay, int checkOutDay) {
+    }
+}
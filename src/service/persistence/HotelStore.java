@@ -0,0 +1,422 @@
+package service.persistence;
+
+import model.Customer;
+import model.IRoom;
+import model.Reservation;
+import service.HotelEventListener;
+import service.customer.CustomerService;
+import service.reservation.ReservationService;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Makes the services durable: every change is journaled before the call returns, and a periodic
+// snapshot lets startup load the latest state and replay only the journal written after it.
+// Snapshots are memory-mapped on startup (see MappedSnapshot) rather than replayed object by object.
+//
+// Records are queued while the services still hold the locks of the change (see HotelEventListener),
+// so the journal has them in the order they were made: a room or customer comes before any stay that
+// uses it, and the stays of one room are in the order they were booked and cancelled. Replay applies
+// them in file order and so rebuilds the same calendars. The caller waits for the flush in afterCommit,
+// after the locks are released.
+//
+// Generation n consists of snapshot-n.bin (state when journal-n.log was started) and journal-n.log.
+// A change is applied in memory before it is journaled, so a snapshot taken after switching to a
+// new journal contains everything in the old one. Changes racing with the switch may end up in
+// both the snapshot and the new journal. Replaying those is a no-op only because such a change
+// and everything after it for the same room follow the snapshot in order: rooms and customers are
+// keyed, a repeated stay finds itself already booked and a repeated cancellation finds nothing left.
+//
+// A property shard has a store of its own (see PropertyStores) that keeps only its rooms and stays.
+// Customers are journaled by the default property's store alone; a shard's snapshots copy just the
+// customers its stays refer to, which the shard reads its archived stays with.
+public class HotelStore implements HotelEventListener, Closeable {
+
+    private static final Logger logger = Logger.getLogger(HotelStore.class.getName());
+    // Version 1 snapshots were a sequential stream; they are still read, version 2 is written and mapped
+    private static final int STREAM_SNAPSHOT_VERSION = 1;
+    private static final Pattern GENERATION_FILE = Pattern.compile("(snapshot|journal)-(\\d+)\\.(bin|log)");
+
+    private final Path directory;
+    private final ReservationService reservationService;
+    private final CustomerService customerService;
+    // False for a property shard's store, which reads customers but never records or attaches them
+    private final boolean ownsCustomers;
+    private final ReadWriteLock journalSwitchLock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService snapshotScheduler;
+    private volatile ReservationJournal journal;
+    // The last record this thread queued, waited for in afterCommit
+    private final ThreadLocal<Queued> lastQueued = new ThreadLocal<>();
+    private long generation;
+    // The mapped snapshot backing the services is kept until restart
+    private long attachedGeneration = -1;
+
+    private HotelStore(Path directory, ReservationService reservationService, CustomerService customerService,
+                       boolean ownsCustomers) {
+        this.directory = directory;
+        this.reservationService = reservationService;
+        this.customerService = customerService;
+        this.ownsCustomers = ownsCustomers;
+        this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                .name("hotel-snapshot")
+                .daemon()
+                .factory());
+    }
+
+    public static HotelStore open(Path directory, ReservationService reservationService, CustomerService customerService,
+                                  long snapshotIntervalMinutes) throws IOException {
+        return open(directory, reservationService, customerService, snapshotIntervalMinutes, true);
+    }
+
+    // The customers must already be recovered by the default property's store
+    static HotelStore openProperty(Path directory, ReservationService shard, CustomerService customerService,
+                                   long snapshotIntervalMinutes) throws IOException {
+        return open(directory, shard, customerService, snapshotIntervalMinutes, false);
+    }
+
+    private static HotelStore open(Path directory, ReservationService reservationService, CustomerService customerService,
+                                   long snapshotIntervalMinutes, boolean ownsCustomers) throws IOException {
+        Files.createDirectories(directory);
+        var store = new HotelStore(directory, reservationService, customerService, ownsCustomers);
+        store.recover();
+        reservationService.addListener(store);
+        if (ownsCustomers) {
+            customerService.addListener(store);
+        }
+        if (snapshotIntervalMinutes > 0) {
+            store.snapshotScheduler.scheduleWithFixedDelay(store::snapshotQuietly,
+                    snapshotIntervalMinutes, snapshotIntervalMinutes, TimeUnit.MINUTES);
+        }
+        return store;
+    }
+
+    @Override
+    public void onRoomAdded(IRoom room) {
+        enqueue(HotelRecordCodec.ROOM, out -> HotelRecordCodec.writeRoom(out, room));
+    }
+
+    @Override
+    public void onCustomerAdded(Customer customer) {
+        enqueue(HotelRecordCodec.CUSTOMER, out -> HotelRecordCodec.writeCustomer(out, customer));
+    }
+
+    @Override
+    public void onReservationAdded(Reservation reservation) {
+        enqueue(HotelRecordCodec.RESERVATION, out -> HotelRecordCodec.writeReservation(out, reservation));
+    }
+
+    @Override
+    public void onReservationCancelled(Reservation reservation) {
+        enqueue(HotelRecordCodec.CANCELLATION, out -> HotelRecordCodec.writeReservation(out, reservation));
+    }
+
+    @Override
+    public void onReservationModified(Reservation previous, Reservation updated) {
+        enqueue(HotelRecordCodec.MODIFICATION, out -> {
+            HotelRecordCodec.writeReservation(out, previous);
+            HotelRecordCodec.writeReservation(out, updated);
+        });
+    }
+
+    // A batch goes into the journal as one unit
+    @Override
+    public void onReservationsAdded(List<Reservation> reservations) {
+        List<byte[]> payloads = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            payloads.add(encode(HotelRecordCodec.RESERVATION, out -> HotelRecordCodec.writeReservation(out, reservation)));
+        }
+        enqueue(payloads);
+    }
+
+    // Everything the call queued goes out with one flush. A journal replaced by a snapshot since then
+    // was closed, which flushed it, so waiting on it returns at once.
+    @Override
+    public void afterCommit() {
+        Queued queued = lastQueued.get();
+        if (Objects.nonNull(queued)) {
+            lastQueued.remove();
+            queued.journal.awaitDurable(queued.sequence);
+        }
+    }
+
+    // Starts a new journal generation, writes the snapshot it starts from and drops older generations
+    public synchronized void snapshot() throws IOException {
+        long snapshotGeneration;
+        journalSwitchLock.writeLock().lock();
+        try {
+            snapshotGeneration = generation + 1;
+            ReservationJournal previous = journal;
+            journal = new ReservationJournal(journalFile(snapshotGeneration));
+            generation = snapshotGeneration;
+            previous.close();
+        } finally {
+            journalSwitchLock.writeLock().unlock();
+        }
+
+        writeSnapshot(snapshotGeneration);
+        deleteGenerationsBefore(snapshotGeneration);
+        logger.info("Snapshot " + snapshotGeneration + " written to " + directory);
+    }
+
+    @Override
+    public void close() throws IOException {
+        snapshotScheduler.shutdownNow();
+        journalSwitchLock.writeLock().lock();
+        try {
+            journal.close();
+        } finally {
+            journalSwitchLock.writeLock().unlock();
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Long> generations = listGenerations("snapshot");
+        long snapshotGeneration = generations.isEmpty() ? 0 : generations.getLast();
+        if (snapshotGeneration > 0) {
+            loadSnapshot(snapshotGeneration);
+        }
+
+        long lastGeneration = snapshotGeneration;
+        for (long journalGeneration : listGenerations("journal")) {
+            if (journalGeneration >= snapshotGeneration) {
+                ReservationJournal.replay(journalFile(journalGeneration), this::apply);
+                lastGeneration = journalGeneration;
+            }
+        }
+
+        generation = lastGeneration;
+        journal = new ReservationJournal(journalFile(generation));
+    }
+
+    private void enqueue(byte type, RecordWriter writer) {
+        enqueue(List.of(encode(type, writer)));
+    }
+
+    private void enqueue(List<byte[]> payloads) {
+        journalSwitchLock.readLock().lock();
+        try {
+            ReservationJournal current = journal;
+            lastQueued.set(new Queued(current, current.enqueue(payloads)));
+        } finally {
+            journalSwitchLock.readLock().unlock();
+        }
+    }
+
+    private static byte[] encode(byte type, RecordWriter writer) {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeByte(type);
+            writer.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void apply(byte[] payload) throws IOException {
+        var in = new DataInputStream(new ByteArrayInputStream(payload));
+        switch (in.readByte()) {
+            case HotelRecordCodec.ROOM -> restoreRoom(HotelRecordCodec.readRoom(in));
+            case HotelRecordCodec.CUSTOMER -> restoreCustomer(HotelRecordCodec.readCustomer(in));
+            case HotelRecordCodec.RESERVATION -> restoreReservation(HotelRecordCodec.readReservation(in));
+            case HotelRecordCodec.CANCELLATION -> restoreCancellation(HotelRecordCodec.readReservation(in));
+            case HotelRecordCodec.MODIFICATION -> {
+                restoreCancellation(HotelRecordCodec.readReservation(in));
+                restoreReservation(HotelRecordCodec.readReservation(in));
+            }
+            default -> throw new IOException("Unknown journal record type");
+        }
+    }
+
+    private void restoreRoom(IRoom room) {
+        if (reservationService.getRoom(room.getRoomNumber()).isEmpty()) {
+            reservationService.addRoom(room);
+        }
+    }
+
+    private void restoreCustomer(Customer customer) {
+        customerService.addCustomer(customer.email(), customer.firstName(), customer.lastName());
+    }
+
+    private void restoreReservation(HotelRecordCodec.StoredReservation stored) {
+        Optional<Customer> customer = customerService.getCustomer(stored.email());
+        Optional<IRoom> room = reservationService.getRoom(stored.roomNumber());
+        // A snapshot can hold a stay whose customer or room was added after that part was written;
+        // both are in the following journal together with the stay itself
+        if (customer.isPresent() && room.isPresent()) {
+            reservationService.restoreReservation(customer.get(), room.get(), stored.checkInDay(), stored.checkOutDay());
+        }
+    }
+
+    // Replayed before any listener is registered, so a modification can be replayed as its two halves
+    private void restoreCancellation(HotelRecordCodec.StoredReservation stored) {
+        Optional<Customer> customer = customerService.getCustomer(stored.email());
+        Optional<IRoom> room = reservationService.getRoom(stored.roomNumber());
+        if (customer.isPresent() && room.isPresent()) {
+            reservationService.cancelReservation(
+                    new Reservation(customer.get(), room.get(), stored.checkInDay(), stored.checkOutDay()));
+        }
+    }
+
+    private void writeSnapshot(long snapshotGeneration) throws IOException {
+        Path target = snapshotFile(snapshotGeneration);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+
+        List<IRoom> rooms = List.copyOf(reservationService.getRoomInventory());
+        List<Customer> customers = ownsCustomers ? List.copyOf(customerService.getAllCustomers()) : new ArrayList<>();
+        Map<String, Integer> roomIndexes = new HashMap<>();
+        for (int i = 0; i < rooms.size(); i++) {
+            roomIndexes.put(rooms.get(i).getRoomNumber(), i);
+        }
+        Map<String, Integer> customerIndexes = new HashMap<>();
+        for (int i = 0; i < customers.size(); i++) {
+            customerIndexes.put(customers.get(i).email(), i);
+        }
+
+        var stays = new StayColumns();
+        try (Stream<Reservation> reservations = reservationService.streamAllReservations()) {
+            reservations.forEach(reservation -> {
+                Integer room = roomIndexes.get(reservation.room().getRoomNumber());
+                Integer customer = ownsCustomers
+                        ? customerIndexes.get(reservation.customer().email())
+                        : customerIndexes.computeIfAbsent(reservation.customer().email(), _ -> {
+                            customers.add(reservation.customer());
+                            return customers.size() - 1;
+                        });
+                // Added after the room or customer list was taken; the new journal has all of them
+                if (Objects.nonNull(room) && Objects.nonNull(customer)) {
+                    stays.add(room, customer, reservation.checkInDay(), reservation.checkOutDay());
+                }
+            });
+        }
+
+        MappedSnapshot.write(temporary, rooms, customers,
+                stays.rooms, stays.customers, stays.checkIns, stays.checkOuts, stays.size);
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void loadSnapshot(long snapshotGeneration) throws IOException {
+        Path file = snapshotFile(snapshotGeneration);
+        if (MappedSnapshot.hasCurrentVersion(file)) {
+            MappedSnapshot snapshot = MappedSnapshot.open(file);
+            reservationService.attachSnapshot(snapshot);
+            if (ownsCustomers) {
+                customerService.attachSnapshot(snapshot);
+            }
+            attachedGeneration = snapshotGeneration;
+            return;
+        }
+
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MappedSnapshot.MAGIC || in.readInt() != STREAM_SNAPSHOT_VERSION) {
+                throw new IOException("Unsupported snapshot format: " + file);
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                restoreRoom(HotelRecordCodec.readRoom(in));
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                restoreCustomer(HotelRecordCodec.readCustomer(in));
+            }
+            while (in.readBoolean()) {
+                restoreReservation(HotelRecordCodec.readReservation(in));
+            }
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            logger.severe("Snapshot failed: " + e.getMessage());
+        }
+    }
+
+    private void deleteGenerationsBefore(long keptGeneration) throws IOException {
+        for (long old : listGenerations("snapshot")) {
+            if (old < keptGeneration && old != attachedGeneration) {
+                Files.deleteIfExists(snapshotFile(old));
+            }
+        }
+        for (long old : listGenerations("journal")) {
+            if (old < keptGeneration) {
+                Files.deleteIfExists(journalFile(old));
+            }
+        }
+    }
+
+    private List<Long> listGenerations(String kind) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> GENERATION_FILE.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .filter(matcher -> matcher.group(1).equals(kind))
+                    .map(matcher -> Long.parseLong(matcher.group(2)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path snapshotFile(long snapshotGeneration) {
+        return directory.resolve("snapshot-" + snapshotGeneration + ".bin");
+    }
+
+    private Path journalFile(long journalGeneration) {
+        return directory.resolve("journal-" + journalGeneration + ".log");
+    }
+
+    // Growable parallel int columns of the stays going into a snapshot
+    private static final class StayColumns {
+        private int[] rooms = new int[1024];
+        private int[] customers = new int[1024];
+        private int[] checkIns = new int[1024];
+        private int[] checkOuts = new int[1024];
+        private int size;
+
+        void add(int room, int customer, int checkIn, int checkOut) {
+            if (size == rooms.length) {
+                int capacity = size * 2;
+                rooms = Arrays.copyOf(rooms, capacity);
+                customers = Arrays.copyOf(customers, capacity);
+                checkIns = Arrays.copyOf(checkIns, capacity);
+                checkOuts = Arrays.copyOf(checkOuts, capacity);
+            }
+            rooms[size] = room;
+            customers[size] = customer;
+            checkIns[size] = checkIn;
+            checkOuts[size] = checkOut;
+            size++;
+        }
+    }
+
+    private record Queued(ReservationJournal journal, long sequence) {
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
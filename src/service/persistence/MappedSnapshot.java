@@ -0,0 +1,387 @@
+package service.persistence;
+
+import model.Customer;
+import model.FreeRoom;
+import model.IRoom;
+import model.Room;
+import model.RoomType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+// Fixed-layout snapshot that is memory-mapped instead of parsed, so startup cost does not grow with
+// the number of stays. Lookups run against the mapping; heap objects are only built for what is read.
+//
+// Layout (little-endian, offsets in bytes):
+//   header          64           magic, version, counts and section offsets
+//   rooms           32 * rooms   string ref, kind, type, price, first stay
+//   customers       48 * custs   sorted by UTF-8 email: string refs, first stay in the customer index
+//   stays           16 * stays   sorted by room then check-in: check-in, check-out, customer, room
+//   customer index   4 * stays   stay positions grouped by customer
+//   strings                      UTF-8 bytes of room numbers, emails and names
+public final class MappedSnapshot implements Closeable {
+
+    static final int MAGIC = 0x48524e53; // "HRNS"
+    static final int VERSION = 2;
+
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final ValueLayout.OfDouble DOUBLE = ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private static final long HEADER_BYTES = 64;
+    private static final long ROOM_BYTES = 32;
+    private static final long CUSTOMER_BYTES = 48;
+    private static final long STAY_BYTES = 16;
+
+    private static final byte PAID_ROOM = 0;
+    private static final byte FREE_ROOM = 1;
+
+    private final Arena arena;
+    private final MemorySegment segment;
+    private final int roomCount;
+    private final int customerCount;
+    private final int stayCount;
+    private final long roomsOffset;
+    private final long customersOffset;
+    private final long staysOffset;
+    private final long customerIndexOffset;
+
+    private MappedSnapshot(Arena arena, MemorySegment segment) throws IOException {
+        this.arena = arena;
+        this.segment = segment;
+        if (segment.byteSize() < HEADER_BYTES || segment.get(INT, 0) != MAGIC || segment.get(INT, 4) != VERSION) {
+            throw new IOException("Unsupported snapshot format");
+        }
+        this.roomCount = segment.get(INT, 8);
+        this.customerCount = segment.get(INT, 12);
+        this.stayCount = segment.get(INT, 16);
+        this.roomsOffset = segment.get(LONG, 24);
+        this.customersOffset = segment.get(LONG, 32);
+        this.staysOffset = segment.get(LONG, 40);
+        this.customerIndexOffset = segment.get(LONG, 48);
+    }
+
+    public static MappedSnapshot open(Path file) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new MappedSnapshot(arena, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    static boolean hasCurrentVersion(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            return header.getInt(0) == MAGIC && header.getInt(4) == VERSION;
+        }
+    }
+
+    public int roomCount() {
+        return roomCount;
+    }
+
+    public IRoom room(int room) {
+        long entry = roomsOffset + room * ROOM_BYTES;
+        String roomNumber = string(entry);
+        RoomType roomType = RoomType.values()[segment.get(ValueLayout.JAVA_BYTE, entry + 13)];
+        if (segment.get(ValueLayout.JAVA_BYTE, entry + 12) == FREE_ROOM) {
+            return new FreeRoom(roomNumber, roomType);
+        }
+        return new Room(roomNumber, segment.get(DOUBLE, entry + 16), roomType);
+    }
+
+    public int firstStayOf(int room) {
+        return segment.get(INT, roomsOffset + room * ROOM_BYTES + 24);
+    }
+
+    public int endStayOf(int room) {
+        return room + 1 < roomCount ? firstStayOf(room + 1) : stayCount;
+    }
+
+    // Same search as CalendarVersion, run directly on the room's stays in the mapping
+    public boolean isFree(int room, int checkIn, int checkOut) {
+        int previous = lastStayStartingBefore(room, checkOut);
+        return previous < firstStayOf(room) || checkOut(previous) <= checkIn;
+    }
+
+    // Position of the room's last stay checking in before the given day, or firstStayOf(room) - 1
+    public int lastStayStartingBefore(int room, int day) {
+        int low = firstStayOf(room);
+        int high = endStayOf(room) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (checkIn(mid) < day) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    public int stayCount() {
+        return stayCount;
+    }
+
+    public int checkIn(int stay) {
+        return segment.get(INT, staysOffset + stay * STAY_BYTES);
+    }
+
+    public int checkOut(int stay) {
+        return segment.get(INT, staysOffset + stay * STAY_BYTES + 4);
+    }
+
+    public int customerOf(int stay) {
+        return segment.get(INT, staysOffset + stay * STAY_BYTES + 8);
+    }
+
+    public int roomOf(int stay) {
+        return segment.get(INT, staysOffset + stay * STAY_BYTES + 12);
+    }
+
+    public int customerCount() {
+        return customerCount;
+    }
+
+    public Customer customer(int customer) {
+        long entry = customersOffset + customer * CUSTOMER_BYTES;
+        return new Customer(string(entry + 16), string(entry + 32), string(entry));
+    }
+
+    public String customerEmail(int customer) {
+        return string(customersOffset + customer * CUSTOMER_BYTES);
+    }
+
+    // Binary search over the sorted emails, comparing UTF-8 bytes in place; -1 when absent
+    public int findCustomer(String email) {
+        int position = searchCustomer(email);
+        return position >= 0 ? position : -1;
+    }
+
+    // Position of the first customer whose email sorts at or after the given one
+    public int customersFrom(String email) {
+        int position = searchCustomer(email);
+        return position >= 0 ? position : -position - 1;
+    }
+
+    public int firstCustomerStayOf(int customer) {
+        return segment.get(INT, customersOffset + customer * CUSTOMER_BYTES + 12);
+    }
+
+    public int endCustomerStayOf(int customer) {
+        return customer + 1 < customerCount ? firstCustomerStayOf(customer + 1) : stayCount;
+    }
+
+    // Position in the stay table of the n-th entry of the customer index
+    public int customerStay(int index) {
+        return segment.get(INT, customerIndexOffset + (long) index * Integer.BYTES);
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    // Match position, or -(insertion point) - 1 when the email is absent
+    private int searchCustomer(String email) {
+        MemorySegment key = MemorySegment.ofArray(email.getBytes(StandardCharsets.UTF_8));
+        int low = 0;
+        int high = customerCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compare(stringSegment(customersOffset + mid * CUSTOMER_BYTES), key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+
+    // String refs are an 8-byte offset followed by a 4-byte length
+    private String string(long ref) {
+        return new String(stringSegment(ref).toArray(ValueLayout.JAVA_BYTE), StandardCharsets.UTF_8);
+    }
+
+    private MemorySegment stringSegment(long ref) {
+        return segment.asSlice(segment.get(LONG, ref), segment.get(INT, ref + 8));
+    }
+
+    private static int compare(MemorySegment left, MemorySegment right) {
+        long mismatch = left.mismatch(right);
+        if (mismatch < 0) {
+            return 0;
+        }
+        if (mismatch == left.byteSize()) {
+            return -1;
+        }
+        if (mismatch == right.byteSize()) {
+            return 1;
+        }
+        return Byte.compareUnsigned(left.get(ValueLayout.JAVA_BYTE, mismatch), right.get(ValueLayout.JAVA_BYTE, mismatch));
+    }
+
+    // Stays are given as parallel arrays indexing into rooms and customers; customers may be in any order
+    static void write(Path file, List<IRoom> rooms, List<Customer> customers,
+                      int[] stayRooms, int[] stayCustomers, int[] checkIns, int[] checkOuts, int stayCount) throws IOException {
+        byte[][] emails = new byte[customers.size()][];
+        for (int i = 0; i < emails.length; i++) {
+            emails[i] = customers.get(i).email().getBytes(StandardCharsets.UTF_8);
+        }
+        Integer[] byEmail = new Integer[emails.length];
+        Arrays.setAll(byEmail, i -> i);
+        Arrays.sort(byEmail, (left, right) -> Arrays.compareUnsigned(emails[left], emails[right]));
+        int[] customerPosition = new int[emails.length];
+        for (int position = 0; position < byEmail.length; position++) {
+            customerPosition[byEmail[position]] = position;
+        }
+
+        int[] firstRoomStay = new int[rooms.size() + 1];
+        int[] stayOrder = sortStaysByRoom(stayRooms, checkIns, stayCount, firstRoomStay);
+        int[] customerIndex = new int[stayCount];
+        int[] firstCustomerStay = groupByCustomer(customers.size(), stayCount,
+                position -> customerPosition[stayCustomers[stayOrder[position]]], customerIndex);
+
+        byte[][] roomNumbers = new byte[rooms.size()][];
+        long stringBytes = 0;
+        for (int i = 0; i < roomNumbers.length; i++) {
+            roomNumbers[i] = rooms.get(i).getRoomNumber().getBytes(StandardCharsets.UTF_8);
+            stringBytes += roomNumbers[i].length;
+        }
+        byte[][] firstNames = new byte[customers.size()][];
+        byte[][] lastNames = new byte[customers.size()][];
+        for (int i = 0; i < customers.size(); i++) {
+            firstNames[i] = customers.get(i).firstName().getBytes(StandardCharsets.UTF_8);
+            lastNames[i] = customers.get(i).lastName().getBytes(StandardCharsets.UTF_8);
+            stringBytes += emails[i].length + firstNames[i].length + lastNames[i].length;
+        }
+
+        long roomsOffset = HEADER_BYTES;
+        long customersOffset = roomsOffset + rooms.size() * ROOM_BYTES;
+        long staysOffset = customersOffset + customers.size() * CUSTOMER_BYTES;
+        long customerIndexOffset = staysOffset + stayCount * STAY_BYTES;
+        long stringsOffset = customerIndexOffset + (long) stayCount * Integer.BYTES;
+        long size = stringsOffset + stringBytes;
+
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MemorySegment out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size, arena);
+            out.set(INT, 0, MAGIC);
+            out.set(INT, 4, VERSION);
+            out.set(INT, 8, rooms.size());
+            out.set(INT, 12, customers.size());
+            out.set(INT, 16, stayCount);
+            out.set(LONG, 24, roomsOffset);
+            out.set(LONG, 32, customersOffset);
+            out.set(LONG, 40, staysOffset);
+            out.set(LONG, 48, customerIndexOffset);
+            out.set(LONG, 56, stringsOffset);
+
+            long nextString = stringsOffset;
+            for (int i = 0; i < rooms.size(); i++) {
+                IRoom room = rooms.get(i);
+                long entry = roomsOffset + i * ROOM_BYTES;
+                nextString = putString(out, entry, roomNumbers[i], nextString);
+                out.set(ValueLayout.JAVA_BYTE, entry + 12, room instanceof FreeRoom ? FREE_ROOM : PAID_ROOM);
+                out.set(ValueLayout.JAVA_BYTE, entry + 13, (byte) room.getRoomType().ordinal());
+                out.set(DOUBLE, entry + 16, room.getRoomPrice());
+                out.set(INT, entry + 24, firstRoomStay[i]);
+            }
+
+            for (int position = 0; position < byEmail.length; position++) {
+                int customer = byEmail[position];
+                long entry = customersOffset + position * CUSTOMER_BYTES;
+                nextString = putString(out, entry, emails[customer], nextString);
+                out.set(INT, entry + 12, firstCustomerStay[position]);
+                nextString = putString(out, entry + 16, firstNames[customer], nextString);
+                nextString = putString(out, entry + 32, lastNames[customer], nextString);
+            }
+
+            for (int position = 0; position < stayCount; position++) {
+                int stay = stayOrder[position];
+                long entry = staysOffset + position * STAY_BYTES;
+                out.set(INT, entry, checkIns[stay]);
+                out.set(INT, entry + 4, checkOuts[stay]);
+                out.set(INT, entry + 8, customerPosition[stayCustomers[stay]]);
+                out.set(INT, entry + 12, stayRooms[stay]);
+                out.set(INT, customerIndexOffset + (long) position * Integer.BYTES, customerIndex[position]);
+            }
+            out.force();
+        }
+    }
+
+    private static long putString(MemorySegment out, long ref, byte[] bytes, long at) {
+        out.set(LONG, ref, at);
+        out.set(INT, ref + 8, bytes.length);
+        MemorySegment.copy(bytes, 0, out, ValueLayout.JAVA_BYTE, at, bytes.length);
+        return at + bytes.length;
+    }
+
+    // Counting sort by room, then each room's stays by check-in; returns stay indices in table order
+    // and fills start with the first table position of every room
+    private static int[] sortStaysByRoom(int[] stayRooms, int[] checkIns, int stayCount, int[] start) {
+        int roomCount = start.length - 1;
+        for (int stay = 0; stay < stayCount; stay++) {
+            start[stayRooms[stay] + 1]++;
+        }
+        Arrays.parallelPrefix(start, Integer::sum);
+        int[] next = Arrays.copyOf(start, roomCount);
+        int[] order = new int[stayCount];
+        for (int stay = 0; stay < stayCount; stay++) {
+            order[next[stayRooms[stay]]++] = stay;
+        }
+
+        long[] keys = new long[0];
+        for (int room = 0; room < roomCount; room++) {
+            int from = start[room];
+            int length = start[room + 1] - from;
+            if (length < 2) {
+                continue;
+            }
+            if (keys.length < length) {
+                keys = new long[length];
+            }
+            for (int i = 0; i < length; i++) {
+                int stay = order[from + i];
+                keys[i] = ((long) checkIns[stay] << 32) | (stay & 0xffffffffL);
+            }
+            Arrays.sort(keys, 0, length);
+            for (int i = 0; i < length; i++) {
+                order[from + i] = (int) keys[i];
+            }
+        }
+        return order;
+    }
+
+    private static int[] groupByCustomer(int customers, int count, IntUnaryOperator customerAt, int[] index) {
+        int[] start = new int[customers + 1];
+        for (int position = 0; position < count; position++) {
+            start[customerAt.applyAsInt(position) + 1]++;
+        }
+        Arrays.parallelPrefix(start, Integer::sum);
+        int[] next = Arrays.copyOf(start, customers);
+        for (int position = 0; position < count; position++) {
+            index[next[customerAt.applyAsInt(position)]++] = position;
+        }
+        return Arrays.copyOf(start, customers);
+    }
+}
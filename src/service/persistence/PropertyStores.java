@@ -0,0 +1,102 @@
+package service.persistence;
+
+import service.HotelEventListener;
+import service.customer.CustomerService;
+import service.property.PropertyService;
+import service.reservation.ReservationService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+// Makes every property durable. The default property keeps its journal and snapshots in the data
+// directory itself, as before there were other properties, and owns the customers; every other
+// property has a HotelStore of its own in properties/<id>. A property's directory is created before
+// the property can be found, so the listing of properties/ is the durable list of properties.
+public class PropertyStores implements HotelEventListener, Closeable {
+
+    private static final String PROPERTIES_DIRECTORY = "properties";
+
+    private final Path propertiesDirectory;
+    private final CustomerService customerService;
+    private final long snapshotIntervalMinutes;
+    private final List<HotelStore> stores = new CopyOnWriteArrayList<>();
+
+    private PropertyStores(Path propertiesDirectory, CustomerService customerService, long snapshotIntervalMinutes) {
+        this.propertiesDirectory = propertiesDirectory;
+        this.customerService = customerService;
+        this.snapshotIntervalMinutes = snapshotIntervalMinutes;
+    }
+
+    // Recovers the default property with the customers first, as the stays of the others refer to them
+    public static PropertyStores open(Path directory, PropertyService propertyService, CustomerService customerService,
+                                      long snapshotIntervalMinutes) throws IOException {
+        var propertyStores = new PropertyStores(directory.resolve(PROPERTIES_DIRECTORY), customerService,
+                snapshotIntervalMinutes);
+        propertyStores.stores.add(HotelStore.open(directory, ReservationService.getReservationServiceInstance(),
+                customerService, snapshotIntervalMinutes));
+
+        Files.createDirectories(propertyStores.propertiesDirectory);
+        List<String> propertyIds;
+        try (Stream<Path> files = Files.list(propertyStores.propertiesDirectory)) {
+            propertyIds = files.filter(Files::isDirectory)
+                    .map(file -> file.getFileName().toString())
+                    .sorted()
+                    .toList();
+        }
+        for (String propertyId : propertyIds) {
+            if (propertyService.addProperty(propertyId)) {
+                propertyStores.openProperty(propertyService.requireShard(propertyId));
+            }
+        }
+        propertyService.addListener(propertyStores);
+        return propertyStores;
+    }
+
+    @Override
+    public void onPropertyAdded(ReservationService shard) {
+        try {
+            openProperty(shard);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create the store of property " + shard.getPropertyId(), e);
+        }
+    }
+
+    // Snapshots every property in turn
+    public void snapshot() throws IOException {
+        for (HotelStore store : stores) {
+            store.snapshot();
+        }
+    }
+
+    // Every store is closed even when one fails; the first failure is rethrown
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (HotelStore store : stores) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                if (Objects.isNull(failure)) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (Objects.nonNull(failure)) {
+            throw failure;
+        }
+    }
+
+    private void openProperty(ReservationService shard) throws IOException {
+        stores.add(HotelStore.openProperty(propertiesDirectory.resolve(shard.getPropertyId()), shard, customerService,
+                snapshotIntervalMinutes));
+    }
+}
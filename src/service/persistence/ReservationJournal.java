@@ -0,0 +1,210 @@
+package service.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+// Append-only journal of framed records: [int payload length][int CRC32 of payload][payload].
+// Appenders queue their frames for a single flusher thread and then wait until they are durable;
+// everything queued while one fsync is running goes out together with the next one (group commit).
+// Queueing never waits for the disk, so callers can queue while holding the locks that order their
+// changes and wait after releasing them; frames reach the file in the order they were queued.
+class ReservationJournal implements Closeable {
+
+    static final long NOT_QUEUED = -1;
+
+    private static final Logger logger = Logger.getLogger(ReservationJournal.class.getName());
+    private static final int FRAME_HEADER_BYTES = 2 * Integer.BYTES;
+
+    private final FileChannel channel;
+    private final Thread flusher;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingAvailable = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+
+    // Guarded by lock
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appendedSequence;
+    private long durableSequence;
+    private IOException failure;
+    private boolean closed;
+
+    ReservationJournal(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.flusher = Thread.ofPlatform()
+                .name("journal-flusher-" + file.getFileName())
+                .daemon()
+                .start(this::flushLoop);
+    }
+
+    // Every payload becomes its own frame, all made durable by the same flush. Returns the sequence to
+    // wait for, or NOT_QUEUED once the journal is closed; the error is reported by awaitDurable.
+    long enqueue(List<byte[]> payloads) {
+        List<byte[]> frames = payloads.stream()
+                .map(ReservationJournal::frame)
+                .toList();
+        lock.lock();
+        try {
+            if (closed) {
+                return NOT_QUEUED;
+            }
+            frames.forEach(pending::writeBytes);
+            pendingAvailable.signal();
+            return ++appendedSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Returns once everything queued up to the sequence is on disk; a closed journal has flushed all it took
+    void awaitDurable(long sequence) {
+        if (sequence == NOT_QUEUED) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        lock.lock();
+        try {
+            while (durableSequence < sequence && Objects.isNull(failure)) {
+                durable.awaitUninterruptibly();
+            }
+            if (Objects.nonNull(failure)) {
+                throw new UncheckedIOException("Journal write failed", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            pendingAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    // Reads every intact record and cuts the file after the last one, dropping a torn tail left by a crash
+    static void replay(Path file, RecordHandler handler) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        long validLength = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    int checksum = in.readInt();
+                    if (length < 0 || validLength + FRAME_HEADER_BYTES + length > channel.size()) {
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    crc.reset();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != checksum) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                handler.handle(payload);
+                validLength += FRAME_HEADER_BYTES + payload.length;
+            }
+            if (validLength < channel.size()) {
+                logger.warning("Discarding " + (channel.size() - validLength) + " bytes of incomplete journal tail in " + file);
+                channel.truncate(validLength);
+                channel.force(true);
+            }
+        }
+    }
+
+    private static byte[] frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return ByteBuffer.allocate(FRAME_HEADER_BYTES + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put(payload)
+                .array();
+    }
+
+    private void flushLoop() {
+        while (true) {
+            ByteArrayOutputStream batch;
+            long batchSequence;
+            lock.lock();
+            try {
+                while (pending.size() == 0 && !closed) {
+                    pendingAvailable.awaitUninterruptibly();
+                }
+                if (pending.size() == 0) {
+                    return;
+                }
+                batch = pending;
+                batchSequence = appendedSequence;
+                pending = new ByteArrayOutputStream();
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            lock.lock();
+            try {
+                if (Objects.nonNull(error)) {
+                    failure = error;
+                } else {
+                    durableSequence = batchSequence;
+                }
+                durable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (Objects.nonNull(error)) {
+                logger.severe("Journal flush failed: " + error.getMessage());
+                return;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface RecordHandler {
+        void handle(byte[] payload) throws IOException;
+    }
+}
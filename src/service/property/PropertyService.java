@@ -0,0 +1,147 @@
+package service.property;
+
+import model.IRoom;
+import model.PropertyRoom;
+import model.RoomFilter;
+import service.HotelEventListener;
+import service.reservation.ReservationService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+// The hotels we run, each with its own inventory shard: a ReservationService with its own rooms,
+// calendars, indexes and locks, so bookings in different properties never contend and a new property
+// adds nothing to the searches of the others. Customers are shared through the one CustomerService.
+// A search over several properties runs on one virtual thread per property and merges the results.
+public class PropertyService {
+
+    private static final PropertyService PROPERTY_SERVICE_INSTANCE = new PropertyService();
+    // Ids name the property's data directory, so they cannot be "." or ".."
+    private static final Pattern PROPERTY_ID = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,63}");
+
+    private final ConcurrentNavigableMap<String, ReservationService> shards = new ConcurrentSkipListMap<>();
+    private final ExecutorService searchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<HotelEventListener> listeners = new CopyOnWriteArrayList<>();
+
+    private PropertyService() {
+        ReservationService defaultShard = ReservationService.getReservationServiceInstance();
+        shards.put(defaultShard.getPropertyId(), defaultShard);
+    }
+
+    public static PropertyService getPropertyServiceInstance() {
+        return PROPERTY_SERVICE_INSTANCE;
+    }
+
+    // False when the property already exists. Adding is rare, so it is simply serialized; searches
+    // never wait for it. Listeners hear of the shard before it can be found, and the property is not
+    // added when one of them fails.
+    public synchronized boolean addProperty(String propertyId) {
+        if (Objects.isNull(propertyId) || !PROPERTY_ID.matcher(propertyId).matches()) {
+            throw new IllegalArgumentException(
+                    "Property ids are 1 to 64 letters, digits, '.', '_' or '-', starting with a letter or digit.");
+        }
+        if (shards.containsKey(propertyId)) {
+            return false;
+        }
+        ReservationService shard = ReservationService.newPropertyShard(propertyId);
+        listeners.forEach(listener -> listener.onPropertyAdded(shard));
+        shards.put(propertyId, shard);
+        return true;
+    }
+
+    public void addListener(HotelEventListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "Listener must not be null"));
+    }
+
+    public List<String> getPropertyIds() {
+        return List.copyOf(shards.keySet());
+    }
+
+    public Optional<ReservationService> getShard(String propertyId) {
+        return Optional.ofNullable(propertyId).map(shards::get);
+    }
+
+    public ReservationService requireShard(String propertyId) {
+        return getShard(propertyId)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown property: " + propertyId));
+    }
+
+    public Collection<ReservationService> getShards() {
+        return shards.values();
+    }
+
+    // Available rooms per property, in the order the properties were given; no properties means all of them
+    public Map<String, Collection<IRoom>> findRooms(Collection<String> propertyIds, int checkInDay, int checkOutDay) {
+        return fanOut(propertyIds, shard -> shard.findRooms(checkInDay, checkOutDay));
+    }
+
+    // The cheapest matching rooms over all the given properties, at most filter.limit() of them.
+    // Each shard returns its own cheapest ones, so the merge only ever sees properties x limit rooms.
+    public List<PropertyRoom> findRooms(Collection<String> propertyIds, RoomFilter filter, int checkInDay, int checkOutDay) {
+        Map<String, List<IRoom>> found = fanOut(propertyIds, shard -> shard.findRooms(filter, checkInDay, checkOutDay));
+        List<PropertyRoom> merged = new ArrayList<>();
+        found.forEach((propertyId, rooms) -> rooms.forEach(room -> merged.add(new PropertyRoom(propertyId, room))));
+        merged.sort(Comparator.comparingDouble(propertyRoom -> propertyRoom.room().getRoomPrice()));
+        return merged.size() > filter.limit() ? List.copyOf(merged.subList(0, filter.limit())) : merged;
+    }
+
+    private <T> Map<String, T> fanOut(Collection<String> propertyIds, Function<ReservationService, T> search) {
+        List<ReservationService> targets = resolve(propertyIds);
+        Map<String, T> results = new LinkedHashMap<>();
+        if (targets.size() == 1) {
+            results.put(targets.getFirst().getPropertyId(), search.apply(targets.getFirst()));
+            return results;
+        }
+        List<Future<T>> pending = new ArrayList<>(targets.size());
+        for (ReservationService shard : targets) {
+            pending.add(searchExecutor.submit(() -> search.apply(shard)));
+        }
+        for (int i = 0; i < targets.size(); i++) {
+            results.put(targets.get(i).getPropertyId(), join(pending.get(i)));
+        }
+        return results;
+    }
+
+    private List<ReservationService> resolve(Collection<String> propertyIds) {
+        if (Objects.isNull(propertyIds) || propertyIds.isEmpty()) {
+            return List.copyOf(shards.values());
+        }
+        Set<String> distinct = new LinkedHashSet<>(propertyIds);
+        List<ReservationService> targets = new ArrayList<>(distinct.size());
+        for (String propertyId : distinct) {
+            targets.add(requireShard(propertyId));
+        }
+        return targets;
+    }
+
+    private static <T> T join(Future<T> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Search failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package service.reservation;
+
+import model.IRoom;
+import model.RoomFilter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Search results keyed by stay and filter. A hit is a plain concurrent map read that sets the entry's
+// reference bit; once the cached results hold more than maxRooms rooms in total, a clock hand sweeps
+// the map and evicts entries not referenced since it last passed them. A change to a room's calendar
+// evicts only the entries whose stay overlaps the changed one, found through an index by check-in day.
+// The index is split into stripes of STRIPE_DAYS-day blocks, so changes and stores for stays in
+// different weeks take different locks.
+//
+// A result computed while an overlapping change was committing must not be cached. Every invalidation
+// gets a sequence number in each stripe it reaches and the stripe remembers its last few ranges; a search
+// notes the sequence number of its stripe before it starts and its result is only cached if no
+// overlapping invalidation came after it.
+final class AvailabilityCache {
+
+    private static final int RECENT_INVALIDATIONS = 64;
+    private static final int STRIPES = 16;
+    private static final int STRIPE_DAYS = 8;
+
+    private record Key(int checkInDay, int checkOutDay, RoomFilter filter) {
+    }
+
+    private static final class Cached {
+        private final List<IRoom> rooms;
+        private volatile boolean referenced = true;
+
+        private Cached(List<IRoom> rooms) {
+            this.rooms = rooms;
+        }
+    }
+
+    // Keys by check-in day and the recent invalidations for the stays starting in this stripe's blocks,
+    // all guarded by the stripe's monitor
+    private static final class Stripe {
+        private final NavigableMap<Integer, Set<Key>> keysByCheckIn = new TreeMap<>();
+        private final int[] invalidatedFrom = new int[RECENT_INVALIDATIONS];
+        private final int[] invalidatedTo = new int[RECENT_INVALIDATIONS];
+        // Written under the monitor, read without it when a search starts
+        private volatile long invalidations;
+
+        private void remember(int fromDay, int toDay) {
+            long sequence = invalidations + 1;
+            int slot = (int) (sequence % RECENT_INVALIDATIONS);
+            invalidatedFrom[slot] = fromDay;
+            invalidatedTo[slot] = toDay;
+            invalidations = sequence;
+        }
+
+        private boolean invalidatedSince(long ticket, Key key) {
+            if (invalidations - ticket > RECENT_INVALIDATIONS) {
+                return true;
+            }
+            for (long sequence = ticket + 1; sequence <= invalidations; sequence++) {
+                int slot = (int) (sequence % RECENT_INVALIDATIONS);
+                if (invalidatedFrom[slot] < key.checkOutDay && key.checkInDay < invalidatedTo[slot]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final long maxRooms;
+    private final Map<Key, Cached> entries = new ConcurrentHashMap<>();
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicLong cachedRooms = new AtomicLong();
+    // Raised before a search takes its ticket, so an invalidation that read the old value came first
+    private final AtomicInteger longestStay = new AtomicInteger();
+    // Guarded by its own monitor; the map's iterators never fail, so the hand survives concurrent changes
+    private Iterator<Map.Entry<Key, Cached>> clockHand = Collections.emptyIterator();
+    private final Object clockLock = new Object();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // A limit of 0 disables caching
+    AvailabilityCache(long maxRooms) {
+        this.maxRooms = maxRooms;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    // The cached result, or the search's result as an immutable list, cached unless a change got in the way
+    List<IRoom> get(int checkInDay, int checkOutDay, RoomFilter filter, Supplier<List<IRoom>> search) {
+        if (maxRooms <= 0) {
+            return search.get();
+        }
+        var key = new Key(checkInDay, checkOutDay, filter);
+        Cached cached = entries.get(key);
+        if (Objects.nonNull(cached)) {
+            if (!cached.referenced) {
+                cached.referenced = true;
+            }
+            hits.increment();
+            return cached.rooms;
+        }
+        misses.increment();
+        if (checkOutDay - checkInDay > longestStay.get()) {
+            longestStay.accumulateAndGet(checkOutDay - checkInDay, Math::max);
+        }
+        long ticket = stripeOf(checkInDay).invalidations;
+        List<IRoom> result = List.copyOf(search.get());
+        store(key, result, ticket);
+        return result;
+    }
+
+    // Called after a stay of [fromDay, toDay) was booked or freed in some room; visits only the stripes
+    // holding check-in days of stays that can overlap it
+    void invalidate(int fromDay, int toDay) {
+        // Only stays starting after fromDay - longestStay can reach fromDay
+        int lowestCheckIn = (int) Math.max(Integer.MIN_VALUE, (long) fromDay - longestStay.get() + 1);
+        long firstBlock = Math.floorDiv(lowestCheckIn, STRIPE_DAYS);
+        long blocks = Math.min(Math.floorDiv(toDay - 1, STRIPE_DAYS) - firstBlock + 1, STRIPES);
+        for (long block = firstBlock; block < firstBlock + blocks; block++) {
+            Stripe stripe = stripes[Math.floorMod(block, STRIPES)];
+            synchronized (stripe) {
+                stripe.remember(fromDay, toDay);
+                if (stripe.keysByCheckIn.isEmpty()) {
+                    continue;
+                }
+                List<Key> overlapping = new ArrayList<>();
+                for (Set<Key> keys : stripe.keysByCheckIn.subMap(lowestCheckIn, true, toDay, false).values()) {
+                    for (Key key : keys) {
+                        if (key.checkOutDay > fromDay) {
+                            overlapping.add(key);
+                        }
+                    }
+                }
+                overlapping.forEach(key -> remove(stripe, key));
+            }
+        }
+    }
+
+    // Called when rooms are added, which changes the result of every search
+    void invalidateAll() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.remember(Integer.MIN_VALUE, Integer.MAX_VALUE);
+                for (Set<Key> keys : stripe.keysByCheckIn.values()) {
+                    for (Key key : keys) {
+                        Cached cached = entries.remove(key);
+                        if (Objects.nonNull(cached)) {
+                            cachedRooms.addAndGet(-weightOf(cached.rooms));
+                        }
+                    }
+                }
+                stripe.keysByCheckIn.clear();
+            }
+        }
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long hitRatePercent() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : hitCount * 100 / total;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void store(Key key, List<IRoom> result, long ticket) {
+        Stripe stripe = stripeOf(key.checkInDay);
+        synchronized (stripe) {
+            if (stripe.invalidatedSince(ticket, key) || Objects.nonNull(entries.putIfAbsent(key, new Cached(result)))) {
+                return;
+            }
+            stripe.keysByCheckIn.computeIfAbsent(key.checkInDay, _ -> new HashSet<>()).add(key);
+            cachedRooms.addAndGet(weightOf(result));
+        }
+        if (cachedRooms.get() > maxRooms) {
+            evict();
+        }
+    }
+
+    // Second chance: a referenced entry loses its bit and is passed over, so two sweeps always find a victim
+    private void evict() {
+        synchronized (clockLock) {
+            while (cachedRooms.get() > maxRooms && !entries.isEmpty()) {
+                if (!clockHand.hasNext()) {
+                    clockHand = entries.entrySet().iterator();
+                    continue;
+                }
+                Map.Entry<Key, Cached> candidate = clockHand.next();
+                Cached cached = candidate.getValue();
+                if (cached.referenced) {
+                    cached.referenced = false;
+                    continue;
+                }
+                Stripe stripe = stripeOf(candidate.getKey().checkInDay);
+                synchronized (stripe) {
+                    if (entries.remove(candidate.getKey(), cached)) {
+                        unindex(stripe, candidate.getKey(), cached.rooms);
+                    }
+                }
+            }
+        }
+    }
+
+    // The caller holds the stripe's monitor
+    private void remove(Stripe stripe, Key key) {
+        Cached cached = entries.remove(key);
+        if (Objects.nonNull(cached)) {
+            unindex(stripe, key, cached.rooms);
+        }
+    }
+
+    private void unindex(Stripe stripe, Key key, List<IRoom> result) {
+        Set<Key> keys = stripe.keysByCheckIn.get(key.checkInDay);
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            stripe.keysByCheckIn.remove(key.checkInDay);
+        }
+        cachedRooms.addAndGet(-weightOf(result));
+    }
+
+    private Stripe stripeOf(int checkInDay) {
+        return stripes[Math.floorMod(Math.floorDiv(checkInDay, STRIPE_DAYS), STRIPES)];
+    }
+
+    // An empty result still takes a slot
+    private static long weightOf(List<IRoom> result) {
+        return result.size() + 1L;
+    }
+}
@@ -0,0 +1,9 @@
+package service.reservation;
+
+import model.IRoom;
+
+import java.util.List;
+
+// Alternative stay of the requested length and the rooms free for all of it, in epoch days
+public record AvailableWindow(int checkInDay, int checkOutDay, List<IRoom> rooms) {
+}
@@ -0,0 +1,227 @@
+package service.reservation;
+
+import model.Customer;
+import model.IRoom;
+import model.Reservation;
+import service.persistence.MappedSnapshot;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// One room's stays at one point in time: parallel arrays sorted by check-in (check-out exclusive,
+// never overlapping) with the customer of each stay, mirrored inside the booking horizon in an
+// occupancy bitmap that answers availability with a few masked word tests. A version is never
+// modified once published, so readers need no lock; a writer copies it into a Builder, changes that
+// and publishes what it builds.
+// Stays of a room restored from a mapped snapshot are checked in place in the mapping; the room's
+// first change copies them into the bitmap, and its first cancellation into the arrays.
+final class CalendarVersion {
+
+    private static final Customer[] NO_CUSTOMERS = new Customer[0];
+
+    private final IRoom room;
+    private final int[] checkIns;
+    private final int[] checkOuts;
+    private final Customer[] customers;
+    private final int size;
+    private final OccupancyBitmap occupancy;
+    // Null once the archived stays were copied into the arrays
+    private final MappedSnapshot archive;
+    private final int archivedRoom;
+    private final boolean archiveInOccupancy;
+
+    private CalendarVersion(IRoom room, int[] checkIns, int[] checkOuts, Customer[] customers, int size,
+                            OccupancyBitmap occupancy, MappedSnapshot archive, int archivedRoom, boolean archiveInOccupancy) {
+        this.room = room;
+        this.checkIns = checkIns;
+        this.checkOuts = checkOuts;
+        this.customers = customers;
+        this.size = size;
+        this.occupancy = occupancy;
+        this.archive = archive;
+        this.archivedRoom = archivedRoom;
+        this.archiveInOccupancy = archiveInOccupancy;
+    }
+
+    static CalendarVersion empty(IRoom room, int horizonStartDay, int horizonDays) {
+        return restored(room, horizonStartDay, horizonDays, null, -1);
+    }
+
+    static CalendarVersion restored(IRoom room, int horizonStartDay, int horizonDays, MappedSnapshot archive, int archivedRoom) {
+        OccupancyBitmap occupancy = horizonDays > 0 ? new OccupancyBitmap(horizonStartDay, horizonDays) : null;
+        return new CalendarVersion(room, new int[0], new int[0], NO_CUSTOMERS, 0, occupancy, archive, archivedRoom,
+                Objects.isNull(archive));
+    }
+
+    IRoom room() {
+        return room;
+    }
+
+    boolean isFree(int checkIn, int checkOut) {
+        if (archiveInOccupancy && Objects.nonNull(occupancy) && occupancy.covers(checkIn, checkOut)) {
+            return occupancy.isClear(checkIn, checkOut);
+        }
+        return isFreeInStays(checkIns, checkOuts, size, checkIn, checkOut)
+                && (Objects.isNull(archive) || archive.isFree(archivedRoom, checkIn, checkOut));
+    }
+
+    // Flags every night of [fromDay, toDay) that some stay occupies; nights[0] is fromDay
+    void markOccupiedNights(int fromDay, int toDay, boolean[] nights) {
+        for (int stay = Math.max(lastStartingBefore(checkIns, size, fromDay), 0); stay < size && checkIns[stay] < toDay; stay++) {
+            markNights(checkIns[stay], checkOuts[stay], fromDay, toDay, nights);
+        }
+        if (Objects.nonNull(archive)) {
+            int first = Math.max(archive.lastStayStartingBefore(archivedRoom, fromDay), archive.firstStayOf(archivedRoom));
+            for (int stay = first; stay < archive.endStayOf(archivedRoom) && archive.checkIn(stay) < toDay; stay++) {
+                markNights(archive.checkIn(stay), archive.checkOut(stay), fromDay, toDay, nights);
+            }
+        }
+    }
+
+    // Archived stays included
+    Stream<Reservation> reservations() {
+        Stream<Reservation> stays = IntStream.range(0, size)
+                .mapToObj(stay -> new Reservation(customers[stay], room, checkIns[stay], checkOuts[stay]));
+        if (Objects.isNull(archive)) {
+            return stays;
+        }
+        return Stream.concat(stays, IntStream.range(archive.firstStayOf(archivedRoom), archive.endStayOf(archivedRoom))
+                .mapToObj(stay -> new Reservation(archive.customer(archive.customerOf(stay)), room,
+                        archive.checkIn(stay), archive.checkOut(stay))));
+    }
+
+    long occupancySizeInBytes() {
+        return Objects.nonNull(occupancy) ? occupancy.sizeInBytes() : 0;
+    }
+
+    Builder edit() {
+        return new Builder(this);
+    }
+
+    // A private, changeable copy of a version. build() hands the arrays over to the new version, so a
+    // builder must not be used after it.
+    static final class Builder {
+
+        private final IRoom room;
+        private int[] checkIns;
+        private int[] checkOuts;
+        private Customer[] customers;
+        private int size;
+        private final OccupancyBitmap occupancy;
+        private MappedSnapshot archive;
+        private final int archivedRoom;
+
+        private Builder(CalendarVersion version) {
+            room = version.room;
+            // Room for one more stay, the usual single booking, without growing
+            checkIns = Arrays.copyOf(version.checkIns, version.size + 1);
+            checkOuts = Arrays.copyOf(version.checkOuts, version.size + 1);
+            customers = Arrays.copyOf(version.customers, version.size + 1);
+            size = version.size;
+            occupancy = Objects.nonNull(version.occupancy) ? version.occupancy.copy() : null;
+            archive = version.archive;
+            archivedRoom = version.archivedRoom;
+            if (!version.archiveInOccupancy && Objects.nonNull(occupancy)) {
+                for (int stay = archive.firstStayOf(archivedRoom); stay < archive.endStayOf(archivedRoom); stay++) {
+                    occupancy.set(archive.checkIn(stay), archive.checkOut(stay));
+                }
+            }
+        }
+
+        boolean isFree(int checkIn, int checkOut) {
+            if (Objects.nonNull(occupancy) && occupancy.covers(checkIn, checkOut)) {
+                return occupancy.isClear(checkIn, checkOut);
+            }
+            return isFreeInStays(checkIns, checkOuts, size, checkIn, checkOut)
+                    && (Objects.isNull(archive) || archive.isFree(archivedRoom, checkIn, checkOut));
+        }
+
+        // The caller checks that the stay is free first
+        void add(int checkIn, int checkOut, Customer customer) {
+            insertAt(lastStartingBefore(checkIns, size, checkIn) + 1, checkIn, checkOut, customer);
+            if (Objects.nonNull(occupancy)) {
+                occupancy.set(checkIn, checkOut);
+            }
+        }
+
+        // Frees the customer's stay; false when the room has no such stay
+        boolean remove(int checkIn, int checkOut, String email) {
+            copyArchiveIntoStays();
+            // Stays never overlap, so at most one starts on the check-in day
+            int stay = lastStartingBefore(checkIns, size, checkIn + 1);
+            if (stay < 0 || checkIns[stay] != checkIn || checkOuts[stay] != checkOut || !customers[stay].email().equals(email)) {
+                return false;
+            }
+            size--;
+            System.arraycopy(checkIns, stay + 1, checkIns, stay, size - stay);
+            System.arraycopy(checkOuts, stay + 1, checkOuts, stay, size - stay);
+            System.arraycopy(customers, stay + 1, customers, stay, size - stay);
+            customers[size] = null;
+            if (Objects.nonNull(occupancy)) {
+                occupancy.clear(checkIn, checkOut);
+            }
+            return true;
+        }
+
+        CalendarVersion build() {
+            return new CalendarVersion(room, checkIns, checkOuts, customers, size, occupancy, archive, archivedRoom, true);
+        }
+
+        // After this the room's archived stays live in the arrays like any other, so they can be cancelled
+        private void copyArchiveIntoStays() {
+            if (Objects.isNull(archive)) {
+                return;
+            }
+            for (int stay = archive.firstStayOf(archivedRoom); stay < archive.endStayOf(archivedRoom); stay++) {
+                int checkIn = archive.checkIn(stay);
+                insertAt(lastStartingBefore(checkIns, size, checkIn) + 1, checkIn, archive.checkOut(stay),
+                        archive.customer(archive.customerOf(stay)));
+            }
+            archive = null;
+        }
+
+        private void insertAt(int index, int checkIn, int checkOut, Customer customer) {
+            if (size == checkIns.length) {
+                int capacity = Math.max(8, size + (size >> 1));
+                checkIns = Arrays.copyOf(checkIns, capacity);
+                checkOuts = Arrays.copyOf(checkOuts, capacity);
+                customers = Arrays.copyOf(customers, capacity);
+            }
+            System.arraycopy(checkIns, index, checkIns, index + 1, size - index);
+            System.arraycopy(checkOuts, index, checkOuts, index + 1, size - index);
+            System.arraycopy(customers, index, customers, index + 1, size - index);
+            checkIns[index] = checkIn;
+            checkOuts[index] = checkOut;
+            customers[index] = customer;
+            size++;
+        }
+    }
+
+    // Only the last stay starting before the requested check-out can reach into the range
+    private static boolean isFreeInStays(int[] checkIns, int[] checkOuts, int size, int checkIn, int checkOut) {
+        int previous = lastStartingBefore(checkIns, size, checkOut);
+        return previous < 0 || checkOuts[previous] <= checkIn;
+    }
+
+    private static int lastStartingBefore(int[] checkIns, int size, int day) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (checkIns[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    private static void markNights(int checkIn, int checkOut, int fromDay, int toDay, boolean[] nights) {
+        for (int day = Math.max(checkIn, fromDay); day < Math.min(checkOut, toDay); day++) {
+            nights[day - fromDay] = true;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package service.reservation;
+
+// A long per epoch day with range add and range maximum in O(log days), as a segment tree whose nodes
+// keep the add that applies to their whole subtree instead of pushing it down: max[node] is add[node]
+// plus the larger child maximum. Like DaySums, the covered days start around today and double in
+// either direction when an update falls outside them. Not thread-safe.
+final class DayMaxima {
+
+    private static final int INITIAL_DAYS = 1024;
+
+    private int firstDay;
+    private int days;
+    private long[] max;
+    private long[] add;
+
+    DayMaxima(int firstDay) {
+        this.firstDay = firstDay;
+        this.days = INITIAL_DAYS;
+        this.max = new long[2 * INITIAL_DAYS];
+        this.add = new long[2 * INITIAL_DAYS];
+    }
+
+    // Adds perDay to every day of [fromDay, toDay)
+    void add(int fromDay, int toDay, long perDay) {
+        if (fromDay >= toDay || perDay == 0) {
+            return;
+        }
+        ensureCovered(fromDay, toDay);
+        update(1, 0, days, fromDay - firstDay, toDay - firstDay, perDay);
+    }
+
+    // Largest value of the days in [fromDay, toDay); days never added to count as 0
+    long max(int fromDay, int toDay) {
+        if (fromDay >= toDay) {
+            throw new IllegalArgumentException("Empty day range: " + fromDay + " to " + toDay);
+        }
+        int from = (int) Math.max((long) fromDay - firstDay, 0);
+        int to = (int) Math.min((long) toDay - firstDay, days);
+        boolean uncoveredDays = (long) fromDay < firstDay || (long) toDay - firstDay > days;
+        if (from >= to) {
+            return 0;
+        }
+        long covered = query(1, 0, days, from, to);
+        return uncoveredDays ? Math.max(covered, 0) : covered;
+    }
+
+    private void update(int node, int low, int high, int from, int to, long delta) {
+        if (to <= low || high <= from) {
+            return;
+        }
+        if (from <= low && high <= to) {
+            add[node] += delta;
+            max[node] += delta;
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        update(2 * node, low, mid, from, to, delta);
+        update(2 * node + 1, mid, high, from, to, delta);
+        max[node] = add[node] + Math.max(max[2 * node], max[2 * node + 1]);
+    }
+
+    private long query(int node, int low, int high, int from, int to) {
+        if (from <= low && high <= to) {
+            return max[node];
+        }
+        int mid = (low + high) >>> 1;
+        long best = Long.MIN_VALUE;
+        if (from < mid) {
+            best = query(2 * node, low, mid, from, to);
+        }
+        if (mid < to) {
+            best = Math.max(best, query(2 * node + 1, mid, high, from, to));
+        }
+        return add[node] + best;
+    }
+
+    private void ensureCovered(int fromDay, int toDay) {
+        if (fromDay >= firstDay && (long) toDay - firstDay <= days) {
+            return;
+        }
+        long[] values = dailyValues();
+        long newFirst = Math.min(firstDay, fromDay);
+        long newEnd = Math.max((long) firstDay + days, toDay);
+        long newDays = days;
+        while (newDays < newEnd - newFirst) {
+            newDays *= 2;
+        }
+        // Growing to the past puts the extra days in the past too
+        if (fromDay < firstDay) {
+            newFirst = newEnd - newDays;
+        }
+        if (newDays > 1 << 30) {
+            throw new IllegalArgumentException("Day range too large: " + fromDay + " to " + toDay);
+        }
+        rebuild((int) newFirst, (int) newDays, values);
+    }
+
+    private long[] dailyValues() {
+        long[] values = new long[days];
+        collect(1, 0, days, 0, values);
+        return values;
+    }
+
+    // A day's value is the sum of the adds on the path from the root to its leaf
+    private void collect(int node, int low, int high, long pending, long[] values) {
+        pending += add[node];
+        if (high - low == 1) {
+            values[low] = pending;
+            return;
+        }
+        int mid = (low + high) >>> 1;
+        collect(2 * node, low, mid, pending, values);
+        collect(2 * node + 1, mid, high, pending, values);
+    }
+
+    private void rebuild(int newFirstDay, int newDays, long[] values) {
+        long[] newMax = new long[2 * newDays];
+        long[] newAdd = new long[2 * newDays];
+        int shift = firstDay - newFirstDay;
+        // Leaves of the power-of-two tree sit at newDays + day and carry their value as their own add
+        for (int day = 0; day < values.length; day++) {
+            newMax[newDays + day + shift] = values[day];
+            newAdd[newDays + day + shift] = values[day];
+        }
+        for (int node = newDays - 1; node > 0; node--) {
+            newMax[node] = Math.max(newMax[2 * node], newMax[2 * node + 1]);
+        }
+        firstDay = newFirstDay;
+        days = newDays;
+        max = newMax;
+        add = newAdd;
+    }
+}
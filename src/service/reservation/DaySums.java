@@ -0,0 +1,125 @@
+package service.reservation;
+
+// A long per epoch day with range add and range sum in O(log days), as the usual pair of Fenwick
+// trees over differences: prefix(i) = i * sum(slopes, i) - sum(offsets, i). The covered days start
+// around today and double in either direction when an update falls outside them. Not thread-safe.
+final class DaySums {
+
+    private static final int INITIAL_DAYS = 1024;
+
+    private int firstDay;
+    private long[] slopes;
+    private long[] offsets;
+
+    DaySums(int firstDay) {
+        this.firstDay = firstDay;
+        this.slopes = new long[INITIAL_DAYS + 1];
+        this.offsets = new long[INITIAL_DAYS + 1];
+    }
+
+    // Adds perDay to every day of [fromDay, toDay)
+    void add(int fromDay, int toDay, long perDay) {
+        if (fromDay >= toDay || perDay == 0) {
+            return;
+        }
+        ensureCovered(fromDay, toDay);
+        int from = fromDay - firstDay + 1;
+        int to = toDay - firstDay + 1;
+        update(slopes, from, perDay);
+        update(slopes, to, -perDay);
+        update(offsets, from, perDay * (from - 1));
+        update(offsets, to, -perDay * (to - 1));
+    }
+
+    // Sum of the values of the days in [fromDay, toDay); days never added to count as 0
+    long sum(int fromDay, int toDay) {
+        int days = slopes.length - 1;
+        int from = Math.max(fromDay - firstDay, 0);
+        int to = (int) Math.min((long) toDay - firstDay, days);
+        return from >= to ? 0 : prefix(to) - prefix(from);
+    }
+
+    private long prefix(int index) {
+        return index * query(slopes, index) - query(offsets, index);
+    }
+
+    private void ensureCovered(int fromDay, int toDay) {
+        int days = slopes.length - 1;
+        if (fromDay >= firstDay && (long) toDay - firstDay < days) {
+            return;
+        }
+        long[] values = dailyValues();
+        long newFirst = Math.min(firstDay, fromDay);
+        long newEnd = Math.max((long) firstDay + days, (long) toDay + 1);
+        long newDays = Math.max(days, 1);
+        while (newDays < newEnd - newFirst) {
+            newDays *= 2;
+        }
+        // Growing to the past puts the extra days in the past too
+        if (fromDay < firstDay) {
+            newFirst = newEnd - newDays;
+        }
+        if (newDays >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Day range too large: " + fromDay + " to " + toDay);
+        }
+        rebuild((int) newFirst, (int) newDays, values);
+    }
+
+    private long[] dailyValues() {
+        int days = slopes.length - 1;
+        long[] values = new long[days];
+        long previous = 0;
+        for (int day = 1; day <= days; day++) {
+            long current = prefix(day);
+            values[day - 1] = current - previous;
+            previous = current;
+        }
+        return values;
+    }
+
+    private void rebuild(int newFirstDay, int newDays, long[] values) {
+        long[] newSlopes = new long[newDays + 1];
+        long[] newOffsets = new long[newDays + 1];
+        int shift = firstDay - newFirstDay;
+        long previous = 0;
+        for (int day = 0; day <= values.length; day++) {
+            long value = day < values.length ? values[day] : 0;
+            long difference = value - previous;
+            previous = value;
+            int index = day + shift + 1;
+            if (difference != 0 && index <= newDays) {
+                newSlopes[index] += difference;
+                newOffsets[index] += difference * (index - 1);
+            }
+        }
+        build(newSlopes);
+        build(newOffsets);
+        firstDay = newFirstDay;
+        slopes = newSlopes;
+        offsets = newOffsets;
+    }
+
+    // Turns point values into a Fenwick tree in place in O(n)
+    private static void build(long[] tree) {
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private static void update(long[] tree, int index, long delta) {
+        for (int i = index; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private static long query(long[] tree, int index) {
+        long sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,94 @@
+package service.reservation;
+
+import model.Customer;
+import model.Reservation;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Each customer's Reservation objects in a lock-free queue, sorted by email so listings can be paged by key
+final class HeapReservationStore implements ReservationStore {
+
+    // With compressed references: the Reservation record and its queue node
+    private static final long BYTES_PER_RESERVATION = 32 + 24;
+
+    private final ConcurrentNavigableMap<String, Collection<Reservation>> reservationsByEmail = new ConcurrentSkipListMap<>();
+    private final LongAdder reservations = new LongAdder();
+
+    @Override
+    public void load(Customer customer, Supplier<List<Reservation>> initial) {
+        reservationsByEmail.computeIfAbsent(customer.email(), _ -> {
+            Collection<Reservation> loaded = new ConcurrentLinkedQueue<>(initial.get());
+            reservations.add(loaded.size());
+            return loaded;
+        });
+    }
+
+    @Override
+    public boolean holds(String email) {
+        return reservationsByEmail.containsKey(email);
+    }
+
+    @Override
+    public void add(Reservation reservation) {
+        reservationsByEmail.computeIfAbsent(reservation.customer().email(), _ -> new ConcurrentLinkedQueue<>())
+                .add(reservation);
+        reservations.increment();
+    }
+
+    @Override
+    public Optional<Reservation> find(Reservation reservation) {
+        Collection<Reservation> booked = reservationsByEmail.get(reservation.customer().email());
+        if (Objects.isNull(booked)) {
+            return Optional.empty();
+        }
+        for (Reservation candidate : booked) {
+            if (candidate.checkInDay() == reservation.checkInDay() && candidate.checkOutDay() == reservation.checkOutDay()
+                    && candidate.room().getRoomNumber().equals(reservation.room().getRoomNumber())) {
+                return Optional.of(candidate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean remove(Reservation reservation) {
+        Optional<Reservation> booked = find(reservation);
+        if (booked.isEmpty() || !reservationsByEmail.get(reservation.customer().email()).remove(booked.get())) {
+            return false;
+        }
+        reservations.decrement();
+        return true;
+    }
+
+    @Override
+    public List<Reservation> reservationsOf(String email) {
+        Collection<Reservation> booked = reservationsByEmail.get(email);
+        return Objects.isNull(booked) ? Collections.emptyList() : List.copyOf(booked);
+    }
+
+    @Override
+    public Iterator<String> emailsFrom(String fromEmail) {
+        return (Objects.isNull(fromEmail) ? reservationsByEmail : reservationsByEmail.tailMap(fromEmail, true))
+                .keySet().iterator();
+    }
+
+    @Override
+    public long reservationCount() {
+        return reservations.sum();
+    }
+
+    @Override
+    public long sizeInBytes() {
+        return reservations.sum() * BYTES_PER_RESERVATION;
+    }
+}
@@ -0,0 +1,91 @@
+package service.reservation;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+// Every room's calendar at one point in time, by slot, as a persistent 32-way trie: a change copies
+// only the nodes on the path to its slot and shares everything else with the previous version, so
+// publishing a booking costs a few 32-entry array copies however many rooms there are. Immutable;
+// ReservationService swaps in the next version through a single atomic reference.
+final class InventoryVersion {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    static final InventoryVersion EMPTY = new InventoryVersion(new Object[WIDTH], 0, 0);
+
+    // Interior nodes are Object[] of children, leaves Object[] of CalendarVersion; shift is the
+    // root's level in bits, 0 when the root is itself a leaf
+    private final Object[] root;
+    private final int shift;
+    private final int size;
+
+    private InventoryVersion(Object[] root, int shift, int size) {
+        this.root = root;
+        this.shift = shift;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    CalendarVersion get(int slot) {
+        Objects.checkIndex(slot, size);
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(slot >>> level) & MASK];
+        }
+        return (CalendarVersion) node[slot & MASK];
+    }
+
+    InventoryVersion with(int slot, CalendarVersion version) {
+        Objects.checkIndex(slot, size);
+        return new InventoryVersion(assoc(root, shift, slot, version), shift, size);
+    }
+
+    // The new room takes slot size()
+    InventoryVersion append(CalendarVersion version) {
+        if (size == 1 << (shift + BITS)) {
+            Object[] grown = new Object[WIDTH];
+            grown[0] = root;
+            return new InventoryVersion(assoc(grown, shift + BITS, size, version), shift + BITS, size + 1);
+        }
+        return new InventoryVersion(assoc(root, shift, size, version), shift, size + 1);
+    }
+
+    void forEach(Consumer<CalendarVersion> action) {
+        forEach(root, shift, size, action);
+    }
+
+    Stream<CalendarVersion> stream() {
+        Stream.Builder<CalendarVersion> versions = Stream.builder();
+        forEach(versions);
+        return versions.build();
+    }
+
+    private static Object[] assoc(Object[] node, int level, int slot, Object value) {
+        Object[] copy = Objects.isNull(node) ? new Object[WIDTH] : node.clone();
+        int index = (slot >>> level) & MASK;
+        copy[index] = level == 0 ? value : assoc((Object[]) copy[index], level - BITS, slot, value);
+        return copy;
+    }
+
+    // Visits the first count slots under the node in order
+    private static void forEach(Object[] node, int level, int count, Consumer<CalendarVersion> action) {
+        if (level == 0) {
+            for (int i = 0; i < count; i++) {
+                action.accept((CalendarVersion) node[i]);
+            }
+            return;
+        }
+        int childCapacity = 1 << level;
+        for (int i = 0; i < WIDTH && count > 0; i++) {
+            int childCount = Math.min(count, childCapacity);
+            forEach((Object[]) node[i], level - BITS, childCount, action);
+            count -= childCount;
+        }
+    }
+}
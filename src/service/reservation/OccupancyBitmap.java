@@ -0,0 +1,90 @@
+package service.reservation;
+
+// One bit per night over a fixed horizon of epoch days [firstDay, firstDay + horizonDays).
+// A stay [checkIn, checkOut) maps to the bit range [checkIn - firstDay, checkOut - firstDay).
+class OccupancyBitmap {
+
+    private static final long ARRAY_HEADER_BYTES = 16;
+
+    private final int firstDay;
+    private final int endDay;
+    private final long[] words;
+
+    OccupancyBitmap(int firstDay, int horizonDays) {
+        this(firstDay, firstDay + horizonDays, new long[(horizonDays + 63) >>> 6]);
+    }
+
+    private OccupancyBitmap(int firstDay, int endDay, long[] words) {
+        this.firstDay = firstDay;
+        this.endDay = endDay;
+        this.words = words;
+    }
+
+    // A calendar version's bitmap is never changed once published; changes go to a copy
+    OccupancyBitmap copy() {
+        return new OccupancyBitmap(firstDay, endDay, words.clone());
+    }
+
+    boolean covers(int checkIn, int checkOut) {
+        return checkIn >= firstDay && checkOut <= endDay;
+    }
+
+    // Caller must make sure the stay is covered
+    boolean isClear(int checkIn, int checkOut) {
+        int from = checkIn - firstDay;
+        int to = checkOut - firstDay;
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+
+        if (firstWord == lastWord) {
+            return (words[firstWord] & firstMask & lastMask) == 0;
+        }
+        long occupied = (words[firstWord] & firstMask) | (words[lastWord] & lastMask);
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            occupied |= words[i];
+        }
+        return occupied == 0;
+    }
+
+    // Marks the part of the stay that falls inside the horizon
+    void set(int checkIn, int checkOut) {
+        update(checkIn, checkOut, true);
+    }
+
+    // Frees the part of a cancelled stay that falls inside the horizon
+    void clear(int checkIn, int checkOut) {
+        update(checkIn, checkOut, false);
+    }
+
+    private void update(int checkIn, int checkOut, boolean occupied) {
+        int from = Math.max(checkIn, firstDay) - firstDay;
+        int to = Math.min(checkOut, endDay) - firstDay;
+        if (from >= to) {
+            return;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+
+        if (firstWord == lastWord) {
+            updateWord(firstWord, firstMask & lastMask, occupied);
+            return;
+        }
+        updateWord(firstWord, firstMask, occupied);
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            words[i] = occupied ? -1L : 0L;
+        }
+        updateWord(lastWord, lastMask, occupied);
+    }
+
+    private void updateWord(int word, long mask, boolean occupied) {
+        words[word] = occupied ? words[word] | mask : words[word] & ~mask;
+    }
+
+    long sizeInBytes() {
+        return ARRAY_HEADER_BYTES + (long) words.length * Long.BYTES;
+    }
+}
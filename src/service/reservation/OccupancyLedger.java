@@ -0,0 +1,84 @@
+package service.reservation;
+
+import model.IRoom;
+import model.RoomType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Booked room-nights and revenue (in cents) per day and room type, updated as bookings commit, so
+// the occupancy or revenue of any date range is answered in O(log days) without reading a single
+// reservation. The same bookings also feed a range-maximum tree of booked rooms per night, from which
+// the fewest free rooms of a type on any night of a stay follows in O(log days) as well.
+// Each room type has its own lock; bookings of different types never contend.
+final class OccupancyLedger {
+
+    private static final class TypeLedger {
+        private final DaySums roomNights;
+        private final DaySums revenueCents;
+        private final DayMaxima bookedRooms;
+        private long rooms;
+
+        TypeLedger(int firstDay) {
+            roomNights = new DaySums(firstDay);
+            revenueCents = new DaySums(firstDay);
+            bookedRooms = new DayMaxima(firstDay);
+        }
+    }
+
+    private final Map<RoomType, TypeLedger> ledgers = new EnumMap<>(RoomType.class);
+
+    OccupancyLedger(int firstDay) {
+        for (RoomType roomType : RoomType.values()) {
+            ledgers.put(roomType, new TypeLedger(firstDay));
+        }
+    }
+
+    void addRoom(IRoom room) {
+        TypeLedger ledger = ledgers.get(room.getRoomType());
+        synchronized (ledger) {
+            ledger.rooms++;
+        }
+    }
+
+    // A negative sign takes a stay back out
+    void addStay(IRoom room, int checkInDay, int checkOutDay, int sign) {
+        TypeLedger ledger = ledgers.get(room.getRoomType());
+        long priceCents = Math.round(room.getRoomPrice() * 100);
+        synchronized (ledger) {
+            ledger.roomNights.add(checkInDay, checkOutDay, sign);
+            ledger.revenueCents.add(checkInDay, checkOutDay, sign * priceCents);
+            ledger.bookedRooms.add(checkInDay, checkOutDay, sign);
+        }
+    }
+
+    long rooms(RoomType roomType) {
+        TypeLedger ledger = ledgers.get(roomType);
+        synchronized (ledger) {
+            return ledger.rooms;
+        }
+    }
+
+    long roomNights(RoomType roomType, int fromDay, int toDay) {
+        TypeLedger ledger = ledgers.get(roomType);
+        synchronized (ledger) {
+            return ledger.roomNights.sum(fromDay, toDay);
+        }
+    }
+
+    long revenueCents(RoomType roomType, int fromDay, int toDay) {
+        TypeLedger ledger = ledgers.get(roomType);
+        synchronized (ledger) {
+            return ledger.revenueCents.sum(fromDay, toDay);
+        }
+    }
+
+    // Rooms of the type free on the busiest night of [fromDay, toDay). An upper bound on the rooms free
+    // for the whole stay, as different rooms may be free on different nights.
+    long minFreeRooms(RoomType roomType, int fromDay, int toDay) {
+        TypeLedger ledger = ledgers.get(roomType);
+        synchronized (ledger) {
+            return ledger.rooms - ledger.bookedRooms.max(fromDay, toDay);
+        }
+    }
+}
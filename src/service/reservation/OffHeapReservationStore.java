@@ -0,0 +1,250 @@
+package service.reservation;
+
+import model.Customer;
+import model.IRoom;
+import model.Reservation;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+// Reservations as int columns in off-heap memory: room id, customer id, check-in day, check-out day and
+// the customer's next stay, 20 bytes a stay that the garbage collector never scans. Room and customer
+// ids index small on-heap tables, and each customer's stays form a list through the next column in
+// booking order. Reservation objects are only built for the stays a query returns.
+// A removed stay's slot is chained into a free list for the next booking. The columns double by copying
+// into a fresh arena and closing the old one; everything but the email index is guarded by the monitor.
+final class OffHeapReservationStore implements ReservationStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int INITIAL_CUSTOMERS = 64;
+    private static final int COLUMNS = 5;
+    private static final int NONE = -1;
+    private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT;
+
+    private Arena arena;
+    private MemorySegment roomColumn;
+    private MemorySegment customerColumn;
+    private MemorySegment checkInColumn;
+    private MemorySegment checkOutColumn;
+    private MemorySegment nextColumn;
+    private int capacity;
+    // Slots below used were handed out once; freed ones are chained through the next column
+    private int used;
+    private int freeSlot = NONE;
+    private long reservations;
+
+    // Customers are never dropped, so ordered paging reads the skip list without the lock. An email
+    // is only put once the customer's stays are in place.
+    private final ConcurrentNavigableMap<String, Integer> customerIds = new ConcurrentSkipListMap<>();
+    private Customer[] customers = new Customer[INITIAL_CUSTOMERS];
+    private int[] firstStays = new int[INITIAL_CUSTOMERS];
+    private int[] lastStays = new int[INITIAL_CUSTOMERS];
+    private int customerCount;
+    private final Map<String, Integer> roomIds = new HashMap<>();
+    private final List<IRoom> rooms = new ArrayList<>();
+
+    OffHeapReservationStore() {
+        grow(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public synchronized void load(Customer customer, Supplier<List<Reservation>> initial) {
+        if (customerIds.containsKey(customer.email())) {
+            return;
+        }
+        int customerId = newCustomer(customer);
+        for (Reservation reservation : initial.get()) {
+            append(customerId, reservation);
+        }
+        customerIds.put(customer.email(), customerId);
+    }
+
+    @Override
+    public boolean holds(String email) {
+        return customerIds.containsKey(email);
+    }
+
+    @Override
+    public synchronized void add(Reservation reservation) {
+        Integer customerId = customerIds.get(reservation.customer().email());
+        if (Objects.isNull(customerId)) {
+            customerId = newCustomer(reservation.customer());
+            customerIds.put(reservation.customer().email(), customerId);
+        }
+        append(customerId, reservation);
+    }
+
+    @Override
+    public synchronized Optional<Reservation> find(Reservation reservation) {
+        Integer customerId = customerIds.get(reservation.customer().email());
+        Integer roomId = roomIds.get(reservation.room().getRoomNumber());
+        if (Objects.isNull(customerId) || Objects.isNull(roomId)) {
+            return Optional.empty();
+        }
+        for (int slot = firstStays[customerId]; slot != NONE; slot = next(slot)) {
+            if (matches(slot, roomId, reservation)) {
+                return Optional.of(materialize(slot));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public synchronized boolean remove(Reservation reservation) {
+        Integer customerId = customerIds.get(reservation.customer().email());
+        Integer roomId = roomIds.get(reservation.room().getRoomNumber());
+        if (Objects.isNull(customerId) || Objects.isNull(roomId)) {
+            return false;
+        }
+        int previous = NONE;
+        for (int slot = firstStays[customerId]; slot != NONE; previous = slot, slot = next(slot)) {
+            if (matches(slot, roomId, reservation)) {
+                unlink(customerId, previous, slot);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized List<Reservation> reservationsOf(String email) {
+        Integer customerId = customerIds.get(email);
+        if (Objects.isNull(customerId)) {
+            return Collections.emptyList();
+        }
+        List<Reservation> booked = new ArrayList<>();
+        for (int slot = firstStays[customerId]; slot != NONE; slot = next(slot)) {
+            booked.add(materialize(slot));
+        }
+        return Collections.unmodifiableList(booked);
+    }
+
+    @Override
+    public Iterator<String> emailsFrom(String fromEmail) {
+        return (Objects.isNull(fromEmail) ? customerIds : customerIds.tailMap(fromEmail, true)).keySet().iterator();
+    }
+
+    @Override
+    public synchronized long reservationCount() {
+        return reservations;
+    }
+
+    @Override
+    public synchronized long sizeInBytes() {
+        return (long) capacity * COLUMNS * Integer.BYTES;
+    }
+
+    private int newCustomer(Customer customer) {
+        if (customerCount == customers.length) {
+            customers = Arrays.copyOf(customers, customerCount * 2);
+            firstStays = Arrays.copyOf(firstStays, customerCount * 2);
+            lastStays = Arrays.copyOf(lastStays, customerCount * 2);
+        }
+        customers[customerCount] = customer;
+        firstStays[customerCount] = NONE;
+        lastStays[customerCount] = NONE;
+        return customerCount++;
+    }
+
+    private void append(int customerId, Reservation reservation) {
+        int slot = takeSlot();
+        roomColumn.setAtIndex(INT, slot, roomId(reservation.room()));
+        customerColumn.setAtIndex(INT, slot, customerId);
+        checkInColumn.setAtIndex(INT, slot, reservation.checkInDay());
+        checkOutColumn.setAtIndex(INT, slot, reservation.checkOutDay());
+        nextColumn.setAtIndex(INT, slot, NONE);
+        if (lastStays[customerId] == NONE) {
+            firstStays[customerId] = slot;
+        } else {
+            nextColumn.setAtIndex(INT, lastStays[customerId], slot);
+        }
+        lastStays[customerId] = slot;
+        reservations++;
+    }
+
+    private boolean matches(int slot, int roomId, Reservation reservation) {
+        return roomColumn.getAtIndex(INT, slot) == roomId
+                && checkInColumn.getAtIndex(INT, slot) == reservation.checkInDay()
+                && checkOutColumn.getAtIndex(INT, slot) == reservation.checkOutDay();
+    }
+
+    // Takes the stay out of its customer's list and puts its slot on the free list
+    private void unlink(int customerId, int previous, int slot) {
+        if (previous == NONE) {
+            firstStays[customerId] = next(slot);
+        } else {
+            nextColumn.setAtIndex(INT, previous, next(slot));
+        }
+        if (lastStays[customerId] == slot) {
+            lastStays[customerId] = previous;
+        }
+        roomColumn.setAtIndex(INT, slot, NONE);
+        nextColumn.setAtIndex(INT, slot, freeSlot);
+        freeSlot = slot;
+        reservations--;
+    }
+
+    private Reservation materialize(int slot) {
+        return new Reservation(customers[customerColumn.getAtIndex(INT, slot)], rooms.get(roomColumn.getAtIndex(INT, slot)),
+                checkInColumn.getAtIndex(INT, slot), checkOutColumn.getAtIndex(INT, slot));
+    }
+
+    private int next(int slot) {
+        return nextColumn.getAtIndex(INT, slot);
+    }
+
+    private int roomId(IRoom room) {
+        return roomIds.computeIfAbsent(room.getRoomNumber(), _ -> {
+            rooms.add(room);
+            return rooms.size() - 1;
+        });
+    }
+
+    private int takeSlot() {
+        if (freeSlot != NONE) {
+            int slot = freeSlot;
+            freeSlot = next(slot);
+            return slot;
+        }
+        if (used == capacity) {
+            grow(Math.multiplyExact(capacity, 2));
+        }
+        return used++;
+    }
+
+    private void grow(int newCapacity) {
+        Arena newArena = Arena.ofShared();
+        long bytes = (long) newCapacity * Integer.BYTES;
+        MemorySegment[] columns = new MemorySegment[COLUMNS];
+        MemorySegment[] old = {roomColumn, customerColumn, checkInColumn, checkOutColumn, nextColumn};
+        for (int column = 0; column < COLUMNS; column++) {
+            columns[column] = newArena.allocate(bytes, Integer.BYTES);
+            if (Objects.nonNull(old[column])) {
+                MemorySegment.copy(old[column], 0, columns[column], 0, (long) used * Integer.BYTES);
+            }
+        }
+        if (Objects.nonNull(arena)) {
+            arena.close();
+        }
+        arena = newArena;
+        roomColumn = columns[0];
+        customerColumn = columns[1];
+        checkInColumn = columns[2];
+        checkOutColumn = columns[3];
+        nextColumn = columns[4];
+        capacity = newCapacity;
+    }
+}
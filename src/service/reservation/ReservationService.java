@@ -1,103 +1,730 @@
 package service.reservation;
 
+import Utils.DateUtils;
 import Utils.DisplayUtils;
+import Utils.SortedIterators;
 import contains.PatternConstants;
 import model.Customer;
 import model.Reservation;
 import model.IRoom;
-import validation.Validation;
+import model.OccupancyStats;
+import model.Page;
+import model.RoomFilter;
+import model.RoomType;
+import service.HotelEventListener;
+import service.metrics.HotelMetrics;
+import service.persistence.MappedSnapshot;
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class ReservationService {
 
-    private static final ReservationService RESERVATION_SERVICE_INSTANCE = new ReservationService();
-    private final Map<String, IRoom> rooms = new HashMap<>();
-    private final Map<String, Collection<Reservation>> reservationsMap = new HashMap<>();
+    // The instance every single-property caller uses; further properties get their own shard
+    public static final String DEFAULT_PROPERTY = "main";
+    // Nights tracked by each room's occupancy bitmap, starting today; 0 disables the bitmaps
+    private static final int OCCUPANCY_HORIZON_DAYS = Integer.getInteger("hotel.occupancy.horizonDays", 730);
+    private static final char CURSOR_SEPARATOR = '|';
+    // Cheapest free rooms a booking by type tries before searching again
+    private static final int TYPE_BOOKING_CANDIDATES = 8;
+    // Where booked reservations are kept by customer: "heap" or "offheap"
+    private static final String RESERVATION_STORE = System.getProperty("hotel.reservationStore", "heap");
+    // Booking window: a stay may start at most pastDays before today, end at most futureDays after it and
+    // last at most maxNights, which bounds the days the per-day ledger has to cover. The past allowance
+    // is generous so journaled and imported history still books when it is replayed.
+    private static final int BOOKING_PAST_DAYS = Integer.getInteger("hotel.booking.pastDays", 3660);
+    private static final int BOOKING_FUTURE_DAYS = Integer.getInteger("hotel.booking.futureDays", 1830);
+    private static final int BOOKING_MAX_NIGHTS = Integer.getInteger("hotel.booking.maxNights", 366);
+    // Total rooms held by cached search results; 0 turns the cache off
+    private static final long AVAILABILITY_CACHE_ROOMS = Long.getLong("hotel.availabilityCache.rooms", 1 << 20);
+    // Last, as the constructor reads the settings above
+    private static final ReservationService RESERVATION_SERVICE_INSTANCE = new ReservationService(DEFAULT_PROPERTY);
 
-    private ReservationService() {
+    // Rooms by number and reservations by customer email are kept sorted so listings can be paged by key
+    private final String propertyId;
+    private final ConcurrentNavigableMap<String, IRoom> rooms = new ConcurrentSkipListMap<>();
+    private final ReservationStore reservationStore = ReservationStore.create(RESERVATION_STORE);
+    // Each room's dense id, which is also its calendar's slot, with its price, type and free flag
+    private final RoomTable roomTable = new RoomTable();
+    // Every calendar as of the last change. Readers take one version and see all rooms at the same point;
+    // a writer builds the next version of its rooms under their locks and publishes it in one swap.
+    private final AtomicReference<InventoryVersion> inventory = new AtomicReference<>(InventoryVersion.EMPTY);
+    // Held while rooms are added, so each new room's slot is the next one when its calendar is appended
+    private final Object roomAdditionLock = new Object();
+    private final RoomSearchIndex searchIndex = new RoomSearchIndex(roomTable);
+    // Invalidated after every calendar change, before the change is reported or returned
+    private final AvailabilityCache availabilityCache = new AvailabilityCache(AVAILABILITY_CACHE_ROOMS);
+    private final List<HotelEventListener> listeners = new CopyOnWriteArrayList<>();
+    // Reservations booked since startup; archived ones are counted by the snapshot
+    private final LongAdder bookedReservations = new LongAdder();
+
+    private final int horizonStartDay = DateUtils.toEpochDay(LocalDate.now());
+    private final OccupancyLedger ledger = new OccupancyLedger(horizonStartDay);
+    // Stays restored from a mapped snapshot stay in the mapping; a customer's are copied to the heap on first access
+    private volatile MappedSnapshot archive;
+    private IRoom[] archivedRooms;
+
+    private ReservationService(String propertyId) {
+        this.propertyId = propertyId;
+        String prefix = DEFAULT_PROPERTY.equals(propertyId) ? "" : propertyId + ".";
+        HotelMetrics metrics = HotelMetrics.getMetricsInstance();
+        metrics.registerGauge(prefix + "rooms", this::getRoomCount);
+        metrics.registerGauge(prefix + "reservations", this::getReservationCount);
+        metrics.registerGauge(prefix + "occupancyBitmapBytes", () -> getOccupancyBytesPerRoom() * getRoomCount());
+        metrics.registerGauge(prefix + "reservationStoreBytes", reservationStore::sizeInBytes);
+        metrics.registerGauge(prefix + "reservationStoreBytesPerReservation",
+                () -> reservationStore.sizeInBytes() / Math.max(reservationStore.reservationCount(), 1));
+        metrics.registerGauge(prefix + "availabilityCacheEntries", availabilityCache::size);
+        metrics.registerGauge(prefix + "availabilityCacheHits", availabilityCache::hits);
+        metrics.registerGauge(prefix + "availabilityCacheMisses", availabilityCache::misses);
+        metrics.registerGauge(prefix + "availabilityCacheHitPercent", availabilityCache::hitRatePercent);
     }
 
     public static ReservationService getReservationServiceInstance() {
         return RESERVATION_SERVICE_INSTANCE;
     }
 
+    // A separate inventory with its own rooms, calendars, indexes and locks. PropertyService keeps
+    // one per property; calling this twice for the same property gives two unrelated shards.
+    public static ReservationService newPropertyShard(String propertyId) {
+        if (Objects.isNull(propertyId) || DEFAULT_PROPERTY.equals(propertyId)) {
+            throw new IllegalArgumentException("Invalid property: " + propertyId);
+        }
+        return new ReservationService(propertyId);
+    }
+
+    public String getPropertyId() {
+        return propertyId;
+    }
+
+    // Every new stay is checked against the booking window; importers call it to reject a row up front
+    public void checkBookingWindow(int checkInDay, int checkOutDay) {
+        if (checkInDay >= checkOutDay) {
+            throw new IllegalArgumentException("Check-in date must be before check-out date");
+        }
+        if ((long) checkOutDay - checkInDay > BOOKING_MAX_NIGHTS) {
+            throw new IllegalArgumentException("A stay must not be longer than " + BOOKING_MAX_NIGHTS + " nights");
+        }
+        if (!isInBookingWindow(checkInDay, checkOutDay)) {
+            throw new IllegalArgumentException("Stay is outside the booking window of " + BOOKING_PAST_DAYS
+                    + " days before and " + BOOKING_FUTURE_DAYS + " days after today");
+        }
+    }
+
     public void addRoom(IRoom room) {
         String roomNumber = room.getRoomNumber();
-        IRoom existingRoom = rooms.putIfAbsent(roomNumber, room);
+        synchronized (roomAdditionLock) {
+            if (roomTable.idOf(roomNumber) != RoomTable.NO_ROOM) {
+                System.out.printf("Room with number %s already exists and was not added.%n", roomNumber);
+                return;
+            }
+            int id = appendCalendar(room, CalendarVersion.empty(room, horizonStartDay, OCCUPANCY_HORIZON_DAYS));
+            listeners.forEach(listener -> listener.onRoomAdded(room));
+            makeFindable(room, id);
+        }
+        availabilityCache.invalidateAll();
+        listeners.forEach(HotelEventListener::afterCommit);
+    }
 
-        if (Objects.nonNull(existingRoom)) {
-            System.out.printf("Room with number %s already exists and was not added.%n", roomNumber);
+    // Bulk variant of addRoom: one cache flush and one listener commit for the batch. An entry is false
+    // when that room number already exists.
+    public boolean[] addRooms(List<IRoom> newRooms) {
+        boolean[] added = new boolean[newRooms.size()];
+        boolean anyAdded = false;
+        synchronized (roomAdditionLock) {
+            for (int i = 0; i < added.length; i++) {
+                IRoom room = newRooms.get(i);
+                if (roomTable.idOf(room.getRoomNumber()) == RoomTable.NO_ROOM) {
+                    int id = appendCalendar(room, CalendarVersion.empty(room, horizonStartDay, OCCUPANCY_HORIZON_DAYS));
+                    listeners.forEach(listener -> listener.onRoomAdded(room));
+                    makeFindable(room, id);
+                    added[i] = true;
+                    anyAdded = true;
+                }
+            }
         }
+        if (anyAdded) {
+            availabilityCache.invalidateAll();
+            listeners.forEach(HotelEventListener::afterCommit);
+        }
+        return added;
+    }
+
+    public void attachSnapshot(MappedSnapshot snapshot) {
+        IRoom[] restoredRooms = new IRoom[snapshot.roomCount()];
+        synchronized (roomAdditionLock) {
+            if (!roomTable.isEmpty()) {
+                throw new IllegalStateException("A snapshot can only be attached before any room is added");
+            }
+            for (int archivedRoom = 0; archivedRoom < restoredRooms.length; archivedRoom++) {
+                IRoom room = snapshot.room(archivedRoom);
+                restoredRooms[archivedRoom] = room;
+                makeFindable(room, appendCalendar(room,
+                        CalendarVersion.restored(room, horizonStartDay, OCCUPANCY_HORIZON_DAYS, snapshot, archivedRoom)));
+            }
+        }
+        for (int stay = 0; stay < snapshot.stayCount(); stay++) {
+            ledger.addStay(restoredRooms[snapshot.roomOf(stay)], snapshot.checkIn(stay), snapshot.checkOut(stay), 1);
+        }
+        archivedRooms = restoredRooms;
+        archive = snapshot;
+        availabilityCache.invalidateAll();
+    }
+
+    public void addListener(HotelEventListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "Listener must not be null"));
+    }
+
+    public Optional<IRoom> getRoom(String roomNumber) {
+        return Optional.ofNullable(rooms.get(roomNumber));
+    }
+
+    public Collection<IRoom> getRoomInventory() {
+        return Collections.unmodifiableCollection(rooms.values());
     }
 
     public Collection<IRoom> getAllRooms() {
-        return rooms.values().stream()
-                .filter(room -> room.getRoomPrice() > 0)
+        return streamAllRooms()
                 .collect(Collectors.toList());
     }
 
-    public Reservation reserveARoom(Customer customer, IRoom room, Date checkIn, Date checkOut) {
+    // Paid rooms in room number order, read lazily from the sorted room map so no listing holds them all
+    public Stream<IRoom> streamAllRooms() {
+        return rooms.values().stream()
+                .filter(room -> room.getRoomPrice() > 0);
+    }
+
+    // Every room, free ones included, in room number order
+    public Page<IRoom> getRoomsPage(String afterRoomNumber, int pageSize) {
+        var remaining = Objects.isNull(afterRoomNumber) ? rooms : rooms.tailMap(afterRoomNumber, false);
+        return Page.take(remaining.values().iterator(), pageSize, IRoom::getRoomNumber);
+    }
+
+    public Optional<Reservation> reserveARoom(Customer customer, IRoom room, int checkInDay, int checkOutDay) {
+        Objects.requireNonNull(customer, "Customer must not be null");
+        Objects.requireNonNull(room, "Room must not be null");
+        checkBookingWindow(checkInDay, checkOutDay);
+        return reserve(customer, existingCalendarOf(room), checkInDay, checkOutDay);
+    }
+
+    // Books a stay that was accepted before, when the journal or a snapshot is replayed. The booking
+    // window moves with the date and can be narrowed by configuration, so it is not applied again.
+    public Optional<Reservation> restoreReservation(Customer customer, IRoom room, int checkInDay, int checkOutDay) {
         Objects.requireNonNull(customer, "Customer must not be null");
         Objects.requireNonNull(room, "Room must not be null");
-        Objects.requireNonNull(checkIn, "Check-in date must not be null");
-        Objects.requireNonNull(checkOut, "Check-out date must not be null");
+        if (checkInDay >= checkOutDay) {
+            throw new IllegalArgumentException("Check-in date must be before check-out date");
+        }
+        return reserve(customer, existingCalendarOf(room), checkInDay, checkOutDay);
+    }
+
+    private Optional<Reservation> reserve(Customer customer, RoomCalendar calendar, int checkInDay, int checkOutDay) {
+        // Conflict check, publication of the room's next version and the listeners' record of the booking
+        // happen atomically under the room's own lock
+        var reservation = new Reservation(customer, calendar.getRoom(), checkInDay, checkOutDay);
+        synchronized (calendar) {
+            CalendarVersion current = currentVersion(calendar);
+            if (!current.isFree(checkInDay, checkOutDay)) {
+                return Optional.empty();
+            }
+            CalendarVersion.Builder next = current.edit();
+            next.add(checkInDay, checkOutDay, customer);
+            publish(Map.of(calendar, next.build()));
+            listeners.forEach(listener -> listener.onReservationAdded(reservation));
+        }
+        availabilityCache.invalidate(checkInDay, checkOutDay);
+
+        ledger.addStay(calendar.getRoom(), checkInDay, checkOutDay, 1);
+        loadCustomer(customer);
+        reservationStore.add(reservation);
+        bookedReservations.increment();
+        listeners.forEach(HotelEventListener::afterCommit);
+        return Optional.of(reservation);
+    }
+
+    // Books the cheapest room of the type that is free for the whole stay. The room is only chosen as the
+    // booking commits, skipping rooms that another booking takes first; empty right away when some night
+    // of the stay has no room of the type left.
+    public Optional<Reservation> reserveRoomOfType(Customer customer, RoomType roomType, int checkInDay, int checkOutDay) {
+        Objects.requireNonNull(customer, "Customer must not be null");
+        Objects.requireNonNull(roomType, "Room type must not be null");
+        checkBookingWindow(checkInDay, checkOutDay);
+
+        var filter = new RoomFilter(EnumSet.of(roomType), Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, null,
+                TYPE_BOOKING_CANDIDATES);
+        // Rooms lost to another booking are not searched again
+        var tried = new BitSet();
+        while (ledger.minFreeRooms(roomType, checkInDay, checkOutDay) > 0) {
+            int[] candidates = searchIndex.searchIds(inventory.get(), filter, checkInDay, checkOutDay, tried);
+            if (candidates.length == 0) {
+                return Optional.empty();
+            }
+            for (int id : candidates) {
+                Optional<Reservation> reservation = reserve(customer, roomTable.calendar(id), checkInDay, checkOutDay);
+                if (reservation.isPresent()) {
+                    return reservation;
+                }
+                tried.set(id);
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Frees the stay in every index: publishes the room's calendar without it under the room's lock, then
+    // updates the customer's reservations and the occupancy ledger. False when the customer has no such reservation.
+    public boolean cancelReservation(Reservation reservation) {
+        Objects.requireNonNull(reservation, "Reservation must not be null");
+        RoomCalendar calendar = calendarOf(reservation.room().getRoomNumber());
+        if (Objects.isNull(calendar)) {
+            return false;
+        }
+        loadCustomer(reservation.customer());
+        Optional<Reservation> booked = reservationStore.find(reservation);
+        if (booked.isEmpty()) {
+            return false;
+        }
+        synchronized (calendar) {
+            CalendarVersion.Builder next = currentVersion(calendar).edit();
+            if (!next.remove(reservation.checkInDay(), reservation.checkOutDay(), reservation.customer().email())) {
+                return false;
+            }
+            publish(Map.of(calendar, next.build()));
+            listeners.forEach(listener -> listener.onReservationCancelled(booked.get()));
+        }
+        availabilityCache.invalidate(reservation.checkInDay(), reservation.checkOutDay());
+
+        reservationStore.remove(booked.get());
+        ledger.addStay(calendar.getRoom(), reservation.checkInDay(), reservation.checkOutDay(), -1);
+        bookedReservations.decrement();
+        listeners.forEach(HotelEventListener::afterCommit);
+        return true;
+    }
+
+    // Moves a reservation to other dates, another room, or both, all or nothing: both calendars are locked
+    // in room id order and their next versions, without the old stay and with the new one, are
+    // published together. Nothing is published when the new stay conflicts, and the result is empty.
+    public Optional<Reservation> modifyReservation(Reservation reservation, IRoom newRoom, int newCheckInDay, int newCheckOutDay) {
+        Objects.requireNonNull(reservation, "Reservation must not be null");
+        Objects.requireNonNull(newRoom, "Room must not be null");
+        checkBookingWindow(newCheckInDay, newCheckOutDay);
+        RoomCalendar oldCalendar = calendarOf(reservation.room().getRoomNumber());
+        RoomCalendar newCalendar = calendarOf(newRoom.getRoomNumber());
+        if (Objects.isNull(newCalendar)) {
+            throw new IllegalArgumentException("Room " + newRoom.getRoomNumber() + " does not exist");
+        }
+        loadCustomer(reservation.customer());
+        Reservation booked = Optional.ofNullable(oldCalendar)
+                .flatMap(_ -> reservationStore.find(reservation))
+                .orElseThrow(() -> new IllegalArgumentException("Reservation not found"));
+
+        var updated = new Reservation(booked.customer(), newCalendar.getRoom(), newCheckInDay, newCheckOutDay);
+        boolean lockOldFirst = oldCalendar.slot() <= newCalendar.slot();
+        RoomCalendar first = lockOldFirst ? oldCalendar : newCalendar;
+        RoomCalendar second = lockOldFirst ? newCalendar : oldCalendar;
+        synchronized (first) {
+            synchronized (second) {
+                CalendarVersion.Builder oldNext = currentVersion(oldCalendar).edit();
+                if (!oldNext.remove(booked.checkInDay(), booked.checkOutDay(), booked.customer().email())) {
+                    throw new IllegalArgumentException("Reservation not found");
+                }
+                CalendarVersion.Builder newNext = oldCalendar == newCalendar ? oldNext : currentVersion(newCalendar).edit();
+                if (!newNext.isFree(newCheckInDay, newCheckOutDay)) {
+                    return Optional.empty();
+                }
+                newNext.add(newCheckInDay, newCheckOutDay, booked.customer());
+                Map<RoomCalendar, CalendarVersion> next = new HashMap<>();
+                next.put(oldCalendar, oldNext.build());
+                if (newNext != oldNext) {
+                    next.put(newCalendar, newNext.build());
+                }
+                publish(next);
+                listeners.forEach(listener -> listener.onReservationModified(booked, updated));
+            }
+        }
+        availabilityCache.invalidate(booked.checkInDay(), booked.checkOutDay());
+        availabilityCache.invalidate(newCheckInDay, newCheckOutDay);
+
+        reservationStore.remove(booked);
+        reservationStore.add(updated);
+        ledger.addStay(oldCalendar.getRoom(), booked.checkInDay(), booked.checkOutDay(), -1);
+        ledger.addStay(newCalendar.getRoom(), newCheckInDay, newCheckOutDay, 1);
+        listeners.forEach(HotelEventListener::afterCommit);
+        return Optional.of(updated);
+    }
+
+    // All or nothing: each room's calendar is locked once, in room id order so concurrent group
+    // bookings cannot deadlock, then every stay is added to its room's next version and the versions
+    // are published together once all of them fit
+    public Optional<List<Reservation>> reserveRooms(Customer customer, List<StayRequest> requests) {
+        Objects.requireNonNull(customer, "Customer must not be null");
+        Objects.requireNonNull(requests, "Room requests must not be null");
+
+        RoomCalendar[] calendars = new RoomCalendar[requests.size()];
+        for (int i = 0; i < calendars.length; i++) {
+            StayRequest request = requests.get(i);
+            Objects.requireNonNull(request.room(), "Room must not be null");
+            checkBookingWindow(request.checkInDay(), request.checkOutDay());
+            calendars[i] = calendarOf(request.room().getRoomNumber());
+            if (Objects.isNull(calendars[i])) {
+                throw new IllegalArgumentException("Room " + request.room().getRoomNumber() + " does not exist");
+            }
+        }
+        RoomCalendar[] lockOrder = Arrays.stream(calendars)
+                .distinct()
+                .sorted(Comparator.comparingInt(RoomCalendar::slot))
+                .toArray(RoomCalendar[]::new);
+
+        List<Reservation> reservations = new ArrayList<>(requests.size());
+        for (int i = 0; i < calendars.length; i++) {
+            StayRequest request = requests.get(i);
+            reservations.add(new Reservation(customer, calendars[i].getRoom(), request.checkInDay(), request.checkOutDay()));
+        }
+        List<Reservation> booked = Collections.unmodifiableList(reservations);
+        if (!publishWhileLocked(lockOrder, 0, calendars, customer, booked)) {
+            return Optional.empty();
+        }
 
-        if (!checkIn.before(checkOut)) {
+        for (int i = 0; i < calendars.length; i++) {
+            StayRequest request = requests.get(i);
+            availabilityCache.invalidate(request.checkInDay(), request.checkOutDay());
+            ledger.addStay(calendars[i].getRoom(), request.checkInDay(), request.checkOutDay(), 1);
+        }
+        loadCustomer(customer);
+        booked.forEach(reservationStore::add);
+        bookedReservations.add(booked.size());
+        listeners.forEach(HotelEventListener::afterCommit);
+        return Optional.of(booked);
+    }
+
+    // Books every reservation that does not conflict, independently of the others, and reports each
+    // room's share to listeners as one batch. An entry is false when the room is unknown, the stay is
+    // outside the booking window or the room is already booked.
+    // Each room's next version is built from all of its reservations in the batch and published once.
+    public boolean[] addReservations(List<Reservation> reservations) {
+        boolean[] booked = new boolean[reservations.size()];
+        RoomCalendar[] calendars = new RoomCalendar[booked.length];
+        Map<RoomCalendar, List<Integer>> byRoom = new LinkedHashMap<>();
+        for (int i = 0; i < booked.length; i++) {
+            Reservation reservation = reservations.get(i);
+            if (!isInBookingWindow(reservation.checkInDay(), reservation.checkOutDay())) {
+                continue;
+            }
+            calendars[i] = calendarOf(reservation.room().getRoomNumber());
+            if (Objects.nonNull(calendars[i])) {
+                byRoom.computeIfAbsent(calendars[i], _ -> new ArrayList<>()).add(i);
+            }
+        }
+        byRoom.forEach((calendar, indexes) -> {
+            synchronized (calendar) {
+                CalendarVersion.Builder next = currentVersion(calendar).edit();
+                List<Reservation> roomBatch = new ArrayList<>(indexes.size());
+                for (int i : indexes) {
+                    Reservation reservation = reservations.get(i);
+                    if (next.isFree(reservation.checkInDay(), reservation.checkOutDay())) {
+                        next.add(reservation.checkInDay(), reservation.checkOutDay(), reservation.customer());
+                        roomBatch.add(reservation);
+                        booked[i] = true;
+                    }
+                }
+                if (!roomBatch.isEmpty()) {
+                    publish(Map.of(calendar, next.build()));
+                    List<Reservation> batch = Collections.unmodifiableList(roomBatch);
+                    listeners.forEach(listener -> listener.onReservationsAdded(batch));
+                }
+            }
+        });
+
+        int bookedCount = 0;
+        for (int i = 0; i < booked.length; i++) {
+            if (booked[i]) {
+                Reservation reservation = reservations.get(i);
+                availabilityCache.invalidate(reservation.checkInDay(), reservation.checkOutDay());
+                ledger.addStay(calendars[i].getRoom(), reservation.checkInDay(), reservation.checkOutDay(), 1);
+                loadCustomer(reservation.customer());
+                reservationStore.add(reservation);
+                bookedCount++;
+            }
+        }
+        bookedReservations.add(bookedCount);
+        if (bookedCount > 0) {
+            listeners.forEach(HotelEventListener::afterCommit);
+        }
+        return booked;
+    }
+
+    // Both searches below read one inventory version and are served from the availability cache when the
+    // same stay was searched before; the results are immutable
+    public Collection<IRoom> findRooms(int checkInDay, int checkOutDay) {
+        if (checkInDay >= checkOutDay) {
             throw new IllegalArgumentException("Check-in date must be before check-out date");
         }
 
-        var reservation = new Reservation(customer, room, checkIn, checkOut);
-        reservationsMap.computeIfAbsent(customer.email(), _ -> new LinkedList<>()).add(reservation);
-        return reservation;
+        return availabilityCache.get(checkInDay, checkOutDay, null, () -> {
+            // Only the result list is allocated; each room answers from its own calendar
+            List<IRoom> availableRooms = new ArrayList<>();
+            inventory.get().forEach(calendar -> {
+                if (calendar.isFree(checkInDay, checkOutDay)) {
+                    availableRooms.add(calendar.room());
+                }
+            });
+            return availableRooms;
+        });
+    }
+
+    // Available rooms matching the filter, cheapest first; answered from the type and price indexes
+    public List<IRoom> findRooms(RoomFilter filter, int checkInDay, int checkOutDay) {
+        Objects.requireNonNull(filter, "Room filter must not be null");
+        if (checkInDay >= checkOutDay) {
+            throw new IllegalArgumentException("Check-in date must be before check-out date");
+        }
+        return availabilityCache.get(checkInDay, checkOutDay, filter,
+                () -> searchIndex.search(inventory.get(), filter, checkInDay, checkOutDay));
     }
 
-    public Collection<IRoom> findRooms(Date checkInDate, Date checkOutDate) {
-        return Optional.ofNullable(retrieveAvailableRooms(checkInDate, checkOutDate))
-                .orElse(Collections.emptyList());    }
+    // Stays of the same length moved by up to windowDays either way, nearest first, never starting before today
+    public List<AvailableWindow> findNearestAvailableWindows(int checkInDay, int checkOutDay, int windowDays, int maxWindows) {
+        if (checkInDay >= checkOutDay) {
+            throw new IllegalArgumentException("Check-in date must be before check-out date");
+        }
+        if (windowDays < 0 || maxWindows < 0) {
+            throw new IllegalArgumentException("Search window and result limit must not be negative");
+        }
+
+        int today = DateUtils.toEpochDay(LocalDate.now());
+        CalendarVersion[] calendars = inventory.get().stream().toArray(CalendarVersion[]::new);
+        return new WindowSearch(checkInDay, checkOutDay, windowDays, today).search(calendars, maxWindows);
+    }
+
+    // Answered from per-day running totals in O(log days); a null room type covers every type
+    public OccupancyStats getOccupancyStats(RoomType roomType, int fromDay, int toDay) {
+        if (fromDay >= toDay) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+        long occupied = 0;
+        long available = 0;
+        long revenueCents = 0;
+        for (RoomType type : Objects.isNull(roomType) ? RoomType.values() : new RoomType[]{roomType}) {
+            occupied += ledger.roomNights(type, fromDay, toDay);
+            available += ledger.rooms(type) * (toDay - fromDay);
+            revenueCents += ledger.revenueCents(type, fromDay, toDay);
+        }
+        return new OccupancyStats(DateUtils.toLocalDate(fromDay), DateUtils.toLocalDate(toDay), roomType,
+                occupied, available, revenueCents / 100.0);
+    }
+
+    // True when every night of the stay has at least roomCount rooms of the type free, answered from the
+    // per-type counters in O(log days). Free nights may be spread over different rooms; reserveRoomOfType
+    // checks the rooms themselves.
+    public boolean hasFreeRooms(RoomType roomType, int checkInDay, int checkOutDay, int roomCount) {
+        Objects.requireNonNull(roomType, "Room type must not be null");
+        if (checkInDay >= checkOutDay) {
+            throw new IllegalArgumentException("Check-in date must be before check-out date");
+        }
+        return ledger.minFreeRooms(roomType, checkInDay, checkOutDay) >= roomCount;
+    }
+
+    public int getRoomCount() {
+        return inventory.get().size();
+    }
+
+    public long getReservationCount() {
+        MappedSnapshot snapshot = archive;
+        return bookedReservations.sum() + (Objects.isNull(snapshot) ? 0 : snapshot.stayCount());
+    }
+
+    public long getOccupancyBytesPerRoom() {
+        InventoryVersion current = inventory.get();
+        return current.size() == 0 ? 0 : current.get(0).occupancySizeInBytes();
+    }
 
     public Collection<Reservation> getCustomersReservation(Customer customer) {
-        return Optional.ofNullable(reservationsMap.get(customer.email()))
-                .orElse(Collections.emptyList());
+        if (Objects.nonNull(archive)) {
+            loadCustomer(customer);
+        }
+        return reservationStore.reservationsOf(customer.email());
     }
 
     public void printAllReservation() {
-        Collection<Reservation> reservations = retrieveAllReservations();
-        DisplayUtils.displayCollection("Reservations List:", reservations, Reservation::toString, PatternConstants.SEPARATOR);
+        DisplayUtils.displayAll("Reservations List:", streamAllReservations().iterator(),
+                (out, reservation) -> out.format("%s", reservation), PatternConstants.SEPARATOR);
     }
 
-    private Collection<IRoom> retrieveAvailableRooms(Date checkInDate, Date checkOutDate) {
-        Collection<Reservation> allReservationEntries = retrieveAllReservations();
+    // Reservations in customer email order. The cursor is the email of the customer the next page starts
+    // in and how many of that customer's reservations were already returned.
+    public Page<Reservation> getReservationsPage(String cursor, int pageSize) {
+        Page.checkPageSize(pageSize);
+        String fromEmail = null;
+        int skip = 0;
+        if (Objects.nonNull(cursor)) {
+            int split = cursor.lastIndexOf(CURSOR_SEPARATOR);
+            try {
+                skip = split < 0 ? -1 : Integer.parseInt(cursor, split + 1, cursor.length(), 10);
+            } catch (NumberFormatException e) {
+                skip = -1;
+            }
+            if (skip < 0) {
+                throw new IllegalArgumentException("Invalid reservation cursor: " + cursor);
+            }
+            fromEmail = cursor.substring(0, split);
+        }
 
-        // Find the set of rooms that are not available
-        Set<IRoom> nonAvailableRooms = allReservationEntries.stream()
-                .filter(reservation -> isOverlapWithReservation(reservation, checkInDate, checkOutDate))
-                .map(Reservation::room)
-                .collect(Collectors.toSet());
+        List<Reservation> items = new ArrayList<>(Math.min(pageSize, 1024));
+        Iterator<String> emails = customerEmailsFrom(fromEmail);
+        while (emails.hasNext()) {
+            String email = emails.next();
+            Iterator<Reservation> reservations = reservationsOf(email).iterator();
+            int offset = 0;
+            if (email.equals(fromEmail)) {
+                for (; offset < skip && reservations.hasNext(); offset++) {
+                    reservations.next();
+                }
+            }
+            while (reservations.hasNext()) {
+                if (items.size() == pageSize) {
+                    return new Page<>(items, email + CURSOR_SEPARATOR + offset);
+                }
+                items.add(reservations.next());
+                offset++;
+            }
+        }
+        return new Page<>(items, null);
+    }
 
-        // Return the list of available rooms
-        return rooms.values().stream()
-                .filter(room -> !nonAvailableRooms.contains(room))
-                .toList();
+    // Every reservation of one inventory version, room by room, archived ones included
+    public Stream<Reservation> streamAllReservations() {
+        return inventory.get().stream()
+                .flatMap(CalendarVersion::reservations);
     }
 
-    private boolean isOverlapWithReservation(Reservation reservation, Date checkIn, Date checkOut) {
-        Optional<Date> optionalCheckIn = Optional.ofNullable(checkIn);
-        Optional<Date> optionalCheckOut = Optional.ofNullable(checkOut);
+    private Iterator<String> customerEmailsFrom(String fromEmail) {
+        Iterator<String> loaded = reservationStore.emailsFrom(fromEmail);
+        MappedSnapshot snapshot = archive;
+        if (Objects.isNull(snapshot)) {
+            return loaded;
+        }
+        Iterator<String> archived = IntStream.range(Objects.isNull(fromEmail) ? 0 : snapshot.customersFrom(fromEmail), snapshot.customerCount())
+                .mapToObj(snapshot::customerEmail)
+                .iterator();
+        return SortedIterators.mergeDistinct(loaded, archived, Comparator.naturalOrder());
+    }
 
-        if (Validation.isCollectionEmpty(Collections.singleton(optionalCheckIn)) ||
-                Validation.isCollectionEmpty(Collections.singleton(optionalCheckOut)) ||
-                !Objects.requireNonNull(checkIn).before(checkOut)) {
-            throw new IllegalArgumentException("Check-in date must be before check-out date");
+    private Collection<Reservation> reservationsOf(String email) {
+        if (reservationStore.holds(email)) {
+            return reservationStore.reservationsOf(email);
         }
-        return checkIn.before(reservation.checkOutDate()) &&
-                Objects.requireNonNull(checkOut).after(reservation.checkInDate());
+        MappedSnapshot snapshot = archive;
+        int archivedCustomer = Objects.isNull(snapshot) ? -1 : snapshot.findCustomer(email);
+        return archivedCustomer >= 0
+                ? archivedReservationsOf(snapshot, archivedCustomer, snapshot.customer(archivedCustomer))
+                : Collections.emptyList();
     }
 
-    private Collection<Reservation> retrieveAllReservations() {
-        return reservationsMap.values().stream()
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+    // Listeners hear of the group while every one of its rooms is still locked
+    private boolean publishWhileLocked(RoomCalendar[] lockOrder, int locked, RoomCalendar[] calendars, Customer customer,
+                                       List<Reservation> booked) {
+        if (locked < lockOrder.length) {
+            synchronized (lockOrder[locked]) {
+                return publishWhileLocked(lockOrder, locked + 1, calendars, customer, booked);
+            }
+        }
+
+        // A room's builder already holds the group's earlier stays in it, so they are checked against each other too
+        Map<RoomCalendar, CalendarVersion.Builder> builders = new HashMap<>();
+        for (int i = 0; i < calendars.length; i++) {
+            Reservation stay = booked.get(i);
+            CalendarVersion.Builder next = builders.computeIfAbsent(calendars[i], calendar -> currentVersion(calendar).edit());
+            if (!next.isFree(stay.checkInDay(), stay.checkOutDay())) {
+                return false;
+            }
+            next.add(stay.checkInDay(), stay.checkOutDay(), customer);
+        }
+        Map<RoomCalendar, CalendarVersion> next = new HashMap<>();
+        builders.forEach((calendar, builder) -> next.put(calendar, builder.build()));
+        publish(next);
+        listeners.forEach(listener -> listener.onReservationsAdded(booked));
+        return true;
+    }
+
+    // Callers hold roomAdditionLock, so the room's new id is also the next slot when its calendar is appended.
+    // The room stays invisible until makeFindable: a booking that finds the room always finds its calendar too.
+    private int appendCalendar(IRoom room, CalendarVersion version) {
+        int id = roomTable.add(room);
+        inventory.updateAndGet(current -> current.append(version));
+        return id;
+    }
+
+    // Last step of adding a room, after listeners heard of it: from here on it can be found and booked
+    private void makeFindable(IRoom room, int id) {
+        roomTable.register(room.getRoomNumber(), id);
+        rooms.put(room.getRoomNumber(), room);
+        searchIndex.add(id);
+        ledger.addRoom(room);
+    }
+
+    // Null when no room has the number
+    private RoomCalendar calendarOf(String roomNumber) {
+        int id = roomTable.idOf(roomNumber);
+        return id == RoomTable.NO_ROOM ? null : roomTable.calendar(id);
+    }
+
+    private RoomCalendar existingCalendarOf(IRoom room) {
+        RoomCalendar calendar = calendarOf(room.getRoomNumber());
+        if (Objects.isNull(calendar)) {
+            throw new IllegalArgumentException("Room " + room.getRoomNumber() + " does not exist");
+        }
+        return calendar;
+    }
+
+    // A valid stay of at most maxNights nights inside the window around today
+    private boolean isInBookingWindow(int checkInDay, int checkOutDay) {
+        int today = DateUtils.toEpochDay(LocalDate.now());
+        return checkInDay < checkOutDay && (long) checkOutDay - checkInDay <= BOOKING_MAX_NIGHTS
+                && (long) checkInDay >= (long) today - BOOKING_PAST_DAYS
+                && (long) checkOutDay <= (long) today + BOOKING_FUTURE_DAYS;
+    }
+
+    // Stable while the caller holds the calendar's lock, as only its holder publishes the room's versions
+    private CalendarVersion currentVersion(RoomCalendar calendar) {
+        return inventory.get().get(calendar.slot());
+    }
+
+    // Swaps in the given rooms' next versions together; concurrent writers of other rooms only cause a retry
+    private void publish(Map<RoomCalendar, CalendarVersion> next) {
+        inventory.updateAndGet(current -> {
+            for (Map.Entry<RoomCalendar, CalendarVersion> entry : next.entrySet()) {
+                current = current.with(entry.getKey().slot(), entry.getValue());
+            }
+            return current;
+        });
+    }
+
+    // Creates the customer's entry in the store before their first change, with their archived stays copied in
+    private void loadCustomer(Customer customer) {
+        if (reservationStore.holds(customer.email())) {
+            return;
+        }
+        reservationStore.load(customer, () -> {
+            MappedSnapshot snapshot = archive;
+            int archivedCustomer = Objects.isNull(snapshot) ? -1 : snapshot.findCustomer(customer.email());
+            return archivedCustomer >= 0 ? archivedReservationsOf(snapshot, archivedCustomer, customer) : List.of();
+        });
+    }
+
+    private List<Reservation> archivedReservationsOf(MappedSnapshot snapshot, int archivedCustomer, Customer customer) {
+        List<Reservation> reservations = new ArrayList<>();
+        for (int i = snapshot.firstCustomerStayOf(archivedCustomer); i < snapshot.endCustomerStayOf(archivedCustomer); i++) {
+            int stay = snapshot.customerStay(i);
+            reservations.add(new Reservation(customer, archivedRooms[snapshot.roomOf(stay)],
+                    snapshot.checkIn(stay), snapshot.checkOut(stay)));
+        }
+        return reservations;
     }
 }
@@ -0,0 +1,48 @@
+package service.reservation;
+
+import model.Customer;
+import model.Reservation;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Booked reservations by customer email, behind a customer's reservations and the paged listing;
+// availability lives in the room calendars. ReservationService picks the implementation with
+// hotel.reservationStore: "heap" keeps Reservation objects, "offheap" keeps int columns outside the heap.
+// A stay is matched by its customer, room number and days.
+interface ReservationStore {
+
+    // Creates the customer's entry from initial, e.g. their archived stays, unless it exists already
+    void load(Customer customer, Supplier<List<Reservation>> initial);
+
+    // True once the customer's entry was created, even if none of their reservations is left
+    boolean holds(String email);
+
+    void add(Reservation reservation);
+
+    Optional<Reservation> find(Reservation reservation);
+
+    // False when the customer has no such reservation
+    boolean remove(Reservation reservation);
+
+    // Empty when the customer has no entry
+    List<Reservation> reservationsOf(String email);
+
+    // Emails of the customers with an entry in order, starting at fromEmail; every one when it is null
+    Iterator<String> emailsFrom(String fromEmail);
+
+    long reservationCount();
+
+    // Memory held for the reservations themselves; estimated from object layouts for the heap store
+    long sizeInBytes();
+
+    static ReservationStore create(String kind) {
+        return switch (kind) {
+            case "heap" -> new HeapReservationStore();
+            case "offheap" -> new OffHeapReservationStore();
+            default -> throw new IllegalArgumentException("Unknown reservation store: " + kind);
+        };
+    }
+}
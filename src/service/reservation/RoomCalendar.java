@@ -0,0 +1,26 @@
+package service.reservation;
+
+import model.IRoom;
+
+// A room's place in the inventory: the slot its calendar takes in every InventoryVersion. The stays
+// themselves live in immutable CalendarVersions; the handle's monitor is the room's writer lock, held
+// while the next version is built and published, so bookings for different rooms never contend and
+// readers never lock at all.
+final class RoomCalendar {
+
+    private final IRoom room;
+    private final int slot;
+
+    RoomCalendar(IRoom room, int slot) {
+        this.room = room;
+        this.slot = slot;
+    }
+
+    IRoom getRoom() {
+        return room;
+    }
+
+    int slot() {
+        return slot;
+    }
+}
@@ -0,0 +1,137 @@
+package service.reservation;
+
+import model.IRoom;
+import model.RoomFilter;
+import model.RoomType;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Secondary indexes over the room inventory: for every room type and free/paid status, the ids of the
+// rooms grouped by price in ascending order. A search merges the price-ordered buckets of the requested
+// types and stops as soon as enough available rooms are found, so it never walks rooms outside the
+// price band or past the limit. Rooms are only ever added, so searches read the maps without locking;
+// availability comes from the inventory version the caller read, and rooms added after it are skipped.
+class RoomSearchIndex {
+
+    private final RoomTable table;
+    private final Map<RoomType, NavigableMap<Double, RoomIds>> paidRooms = emptyIndex();
+    private final Map<RoomType, NavigableMap<Double, RoomIds>> freeRooms = emptyIndex();
+
+    RoomSearchIndex(RoomTable table) {
+        this.table = table;
+    }
+
+    // Called by the single writer that adds rooms, after the room's row is in the table
+    void add(int id) {
+        (table.isFree(id) ? freeRooms : paidRooms).get(table.type(id))
+                .computeIfAbsent(table.price(id), _ -> new RoomIds())
+                .add(id);
+    }
+
+    List<IRoom> search(InventoryVersion inventory, RoomFilter filter, int checkInDay, int checkOutDay) {
+        return Arrays.stream(searchIds(inventory, filter, checkInDay, checkOutDay, new BitSet()))
+                .mapToObj(table::room)
+                .toList();
+    }
+
+    // Ids of the matching rooms, cheapest first, leaving out the excluded ones
+    int[] searchIds(InventoryVersion inventory, RoomFilter filter, int checkInDay, int checkOutDay, BitSet excluded) {
+        PriorityQueue<PriceCursor> cursors = new PriorityQueue<>(
+                Comparator.comparingDouble(PriceCursor::price).thenComparing(cursor -> cursor.roomType));
+        for (RoomType roomType : filter.roomTypes()) {
+            if (filter.includesFree()) {
+                PriceCursor.open(freeRooms.get(roomType), roomType, filter, cursors);
+            }
+            if (filter.includesPaid()) {
+                PriceCursor.open(paidRooms.get(roomType), roomType, filter, cursors);
+            }
+        }
+
+        int[] matches = new int[Math.min(filter.limit(), inventory.size())];
+        int found = 0;
+        while (!cursors.isEmpty() && found < matches.length) {
+            PriceCursor cursor = cursors.poll();
+            RoomIds bucket = cursor.current.getValue();
+            // Count before array: every id below the count is in any array read after it
+            int count = bucket.count;
+            int[] ids = bucket.ids;
+            for (int i = 0; i < count && found < matches.length; i++) {
+                int id = ids[i];
+                if (id < inventory.size() && !excluded.get(id) && inventory.get(id).isFree(checkInDay, checkOutDay)) {
+                    matches[found++] = id;
+                }
+            }
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        return found == matches.length ? matches : Arrays.copyOf(matches, found);
+    }
+
+    private static Map<RoomType, NavigableMap<Double, RoomIds>> emptyIndex() {
+        // Every type gets its map up front, so the EnumMap itself is never modified afterwards
+        Map<RoomType, NavigableMap<Double, RoomIds>> index = new EnumMap<>(RoomType.class);
+        for (RoomType roomType : RoomType.values()) {
+            index.put(roomType, new ConcurrentSkipListMap<>());
+        }
+        return index;
+    }
+
+    // Walks the price buckets of one type and status that fall inside the filter's price band
+    private static final class PriceCursor {
+        private final RoomType roomType;
+        private final Iterator<Map.Entry<Double, RoomIds>> buckets;
+        private Map.Entry<Double, RoomIds> current;
+
+        private PriceCursor(RoomType roomType, Iterator<Map.Entry<Double, RoomIds>> buckets) {
+            this.roomType = roomType;
+            this.buckets = buckets;
+        }
+
+        static void open(NavigableMap<Double, RoomIds> byPrice, RoomType roomType, RoomFilter filter,
+                         Queue<PriceCursor> cursors) {
+            var cursor = new PriceCursor(roomType,
+                    byPrice.subMap(filter.minPrice(), true, filter.maxPrice(), true).entrySet().iterator());
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+
+        double price() {
+            return current.getKey();
+        }
+
+        boolean advance() {
+            current = buckets.hasNext() ? buckets.next() : null;
+            return Objects.nonNull(current);
+        }
+    }
+
+    // The ids of one price bucket. Only the writer that adds rooms appends; it fills the slot before
+    // raising the count, and a grown array is published before the count that reaches into it.
+    private static final class RoomIds {
+        private volatile int[] ids = new int[4];
+        private volatile int count;
+
+        void add(int id) {
+            int[] current = ids;
+            if (count == current.length) {
+                current = Arrays.copyOf(current, count * 2);
+            }
+            current[count] = id;
+            ids = current;
+            count = count + 1;
+        }
+    }
+}
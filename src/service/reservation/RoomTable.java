@@ -0,0 +1,87 @@
+package service.reservation;
+
+import model.IRoom;
+import model.RoomType;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Every room of an inventory by dense int id, handed out in the order rooms are added, so a room's id
+// is also its slot in every InventoryVersion. Price, type and free flag sit in primitive columns that
+// searches compare directly; the IRoom objects are only views handed out for the rows a search returns.
+// Rows are appended by one writer at a time, under ReservationService's room addition lock. The writer
+// adds the row first, appends the room's calendar to the inventory, and only then registers the number,
+// so a room found by number always has its calendar. Ids also reach readers through inventory versions
+// and the search index, both published after the row; the columns are only replaced by larger copies.
+final class RoomTable {
+
+    static final int NO_ROOM = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final RoomType[] ROOM_TYPES = RoomType.values();
+
+    private final Map<String, Integer> idsByNumber = new ConcurrentHashMap<>();
+    private volatile RoomCalendar[] calendars = new RoomCalendar[INITIAL_CAPACITY];
+    private volatile double[] prices = new double[INITIAL_CAPACITY];
+    private volatile byte[] types = new byte[INITIAL_CAPACITY];
+    // One bit per id
+    private volatile long[] free = new long[INITIAL_CAPACITY >>> 6];
+    private int size;
+
+    // Writes the row and returns the new id; the room cannot be found by number until it is registered
+    int add(IRoom room) {
+        int id = size;
+        if (id == calendars.length) {
+            int capacity = id * 2;
+            calendars = Arrays.copyOf(calendars, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            types = Arrays.copyOf(types, capacity);
+            free = Arrays.copyOf(free, capacity >>> 6);
+        }
+        calendars[id] = new RoomCalendar(room, id);
+        prices[id] = room.getRoomPrice();
+        types[id] = (byte) room.getRoomType().ordinal();
+        if (room.isFree()) {
+            free[id >>> 6] |= 1L << id;
+        }
+        size = id + 1;
+        return id;
+    }
+
+    // The caller checked that the room number is new
+    void register(String roomNumber, int id) {
+        idsByNumber.put(roomNumber, id);
+    }
+
+    int idOf(String roomNumber) {
+        Integer id = Objects.isNull(roomNumber) ? null : idsByNumber.get(roomNumber);
+        return Objects.isNull(id) ? NO_ROOM : id;
+    }
+
+    // Read under the room addition lock, like every write
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    RoomCalendar calendar(int id) {
+        return calendars[id];
+    }
+
+    IRoom room(int id) {
+        return calendars[id].getRoom();
+    }
+
+    double price(int id) {
+        return prices[id];
+    }
+
+    RoomType type(int id) {
+        return ROOM_TYPES[types[id]];
+    }
+
+    boolean isFree(int id) {
+        return (free[id >>> 6] & 1L << id) != 0;
+    }
+}
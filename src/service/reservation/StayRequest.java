@@ -0,0 +1,7 @@
+package service.reservation;
+
+import model.IRoom;
+
+// One room of a group booking, with its stay in epoch days
+public record StayRequest(IRoom room, int checkInDay, int checkOutDay) {
+}
@@ -0,0 +1,111 @@
+package service.reservation;
+
+import model.IRoom;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Finds the rooms free for every shift of a stay within +/- windowDays. Each room's occupancy over
+// the whole span is read once, and a sliding count of occupied nights answers all shifts in a single
+// pass instead of running one availability search per candidate date. Large inventories are split
+// into chunks that are scanned on the common pool. The chunks mark free rooms in one mask shared by the
+// search, a row of room bits per shift, and the windows are then read off it one row at a time.
+class WindowSearch {
+
+    private static final int PARALLEL_THRESHOLD = 10_000;
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final int checkInDay;
+    private final int stayLength;
+    private final int windowDays;
+    private final int firstShift;
+    private final int spanStart;
+    private final int spanLength;
+
+    WindowSearch(int checkInDay, int checkOutDay, int windowDays, int earliestCheckInDay) {
+        this.checkInDay = checkInDay;
+        this.stayLength = checkOutDay - checkInDay;
+        this.windowDays = windowDays;
+        // Shift index k moves the stay by k - windowDays days; nothing may start before the earliest day
+        this.firstShift = Math.max(0, earliestCheckInDay - (checkInDay - windowDays));
+        this.spanStart = checkInDay - windowDays;
+        this.spanLength = stayLength + 2 * windowDays;
+    }
+
+    List<AvailableWindow> search(CalendarVersion[] calendars, int maxWindows) {
+        int chunks = calendars.length >= PARALLEL_THRESHOLD
+                ? ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_WORKER
+                : 1;
+        // Chunks start on a multiple of 64 rooms, so no two of them write the same word of a row
+        int roomWords = (calendars.length + 63) >>> 6;
+        long[] freeRooms = new long[Math.multiplyExact(2 * windowDays + 1, roomWords)];
+        IntStream.range(0, chunks)
+                .parallel()
+                .forEach(chunk -> scan(calendars,
+                        (int) ((long) roomWords * chunk / chunks) << 6,
+                        Math.min(calendars.length, (int) ((long) roomWords * (chunk + 1) / chunks) << 6),
+                        freeRooms, roomWords));
+
+        // Nearest first; for the same distance the earlier dates win
+        int[] shifts = IntStream.rangeClosed(0, 2 * windowDays)
+                .filter(shift -> shift != windowDays)
+                .boxed()
+                .sorted(Comparator.comparingInt((Integer shift) -> Math.abs(shift - windowDays)).thenComparing(shift -> shift))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        List<AvailableWindow> windows = new ArrayList<>(Math.min(maxWindows, shifts.length));
+        for (int i = 0; i < shifts.length && windows.size() < maxWindows; i++) {
+            List<IRoom> rooms = roomsOf(calendars, freeRooms, shifts[i] * roomWords, roomWords);
+            if (!rooms.isEmpty()) {
+                int windowCheckIn = checkInDay + shifts[i] - windowDays;
+                windows.add(new AvailableWindow(windowCheckIn, windowCheckIn + stayLength, rooms));
+            }
+        }
+        return Collections.unmodifiableList(windows);
+    }
+
+    private void scan(CalendarVersion[] calendars, int from, int to, long[] freeRooms, int roomWords) {
+        int shifts = 2 * windowDays + 1;
+        boolean[] nights = new boolean[spanLength];
+
+        for (int room = from; room < to; room++) {
+            Arrays.fill(nights, false);
+            calendars[room].markOccupiedNights(spanStart, spanStart + spanLength, nights);
+
+            int occupied = 0;
+            for (int night = 0; night < stayLength; night++) {
+                occupied += nights[night] ? 1 : 0;
+            }
+            for (int shift = 0; shift < shifts; shift++) {
+                if (shift > 0) {
+                    occupied -= nights[shift - 1] ? 1 : 0;
+                    occupied += nights[shift + stayLength - 1] ? 1 : 0;
+                }
+                if (occupied == 0 && shift >= firstShift) {
+                    freeRooms[shift * roomWords + (room >>> 6)] |= 1L << room;
+                }
+            }
+        }
+    }
+
+    // The rooms of one row of the mask in id order
+    private static List<IRoom> roomsOf(CalendarVersion[] calendars, long[] freeRooms, int row, int roomWords) {
+        int count = 0;
+        for (int word = 0; word < roomWords; word++) {
+            count += Long.bitCount(freeRooms[row + word]);
+        }
+        IRoom[] rooms = new IRoom[count];
+        int found = 0;
+        for (int word = 0; found < count; word++) {
+            for (long bits = freeRooms[row + word]; bits != 0; bits &= bits - 1) {
+                rooms[found++] = calendars[word << 6 | Long.numberOfTrailingZeros(bits)].room();
+            }
+        }
+        return Collections.unmodifiableList(Arrays.asList(rooms));
+    }
+}
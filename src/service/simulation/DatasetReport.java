@@ -0,0 +1,10 @@
+package service.simulation;
+
+// What SyntheticHotel generated; reservations falls short of the target when the hotel fills up
+public record DatasetReport(int rooms, int customers, long reservations, long bookingAttempts, long elapsedNanos) {
+
+    public String summary() {
+        return String.format("generated %,d rooms, %,d customers and %,d reservations (%,d attempts) in %.2f s",
+                rooms, customers, reservations, bookingAttempts, elapsedNanos / 1e9);
+    }
+}
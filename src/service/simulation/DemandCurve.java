@@ -0,0 +1,71 @@
+package service.simulation;
+
+import Utils.DateUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.SplittableRandom;
+
+// Relative demand per check-in day over a horizon starting today: a yearly cycle peaking in mid-July,
+// busier Friday and Saturday nights, and a spike over the year-end holidays. Check-in days are drawn
+// by rejection against the highest weight, stay lengths from a fixed 1-7 night distribution.
+final class DemandCurve {
+
+    private static final double SEASONAL_AMPLITUDE = 0.4;
+    private static final int PEAK_DAY_OF_YEAR = 196;
+    private static final double WEEKEND_FACTOR = 1.3;
+    private static final double HOLIDAY_FACTOR = 1.6;
+    private static final MonthDay HOLIDAYS_START = MonthDay.of(12, 20);
+    private static final MonthDay HOLIDAYS_END = MonthDay.of(1, 2);
+    // Relative frequency of stays of 1, 2, ... 7 nights
+    private static final int[] NIGHTS_WEIGHTS = {30, 25, 18, 12, 7, 5, 3};
+    private static final int NIGHTS_TOTAL = 100;
+
+    private final int firstDay;
+    private final double[] weights;
+    private final double maxWeight;
+
+    DemandCurve(int firstDay, int days) {
+        if (days <= 0) {
+            throw new IllegalArgumentException("Horizon must be positive");
+        }
+        this.firstDay = firstDay;
+        this.weights = new double[days];
+        double max = 0;
+        for (int i = 0; i < days; i++) {
+            weights[i] = weightOf(DateUtils.toLocalDate(firstDay + i));
+            max = Math.max(max, weights[i]);
+        }
+        this.maxWeight = max;
+    }
+
+    int sampleCheckInDay(SplittableRandom random) {
+        while (true) {
+            int day = random.nextInt(weights.length);
+            if (random.nextDouble() * maxWeight <= weights[day]) {
+                return firstDay + day;
+            }
+        }
+    }
+
+    int sampleNights(SplittableRandom random) {
+        int ticket = random.nextInt(NIGHTS_TOTAL);
+        for (int nights = 0; nights < NIGHTS_WEIGHTS.length; nights++) {
+            ticket -= NIGHTS_WEIGHTS[nights];
+            if (ticket < 0) {
+                return nights + 1;
+            }
+        }
+        return NIGHTS_WEIGHTS.length;
+    }
+
+    private static double weightOf(LocalDate day) {
+        double season = 1 + SEASONAL_AMPLITUDE * Math.cos(2 * Math.PI * (day.getDayOfYear() - PEAK_DAY_OF_YEAR) / 365.25);
+        DayOfWeek dayOfWeek = day.getDayOfWeek();
+        double weekend = dayOfWeek == DayOfWeek.FRIDAY || dayOfWeek == DayOfWeek.SATURDAY ? WEEKEND_FACTOR : 1;
+        MonthDay monthDay = MonthDay.from(day);
+        boolean holidays = !monthDay.isBefore(HOLIDAYS_START) || !monthDay.isAfter(HOLIDAYS_END);
+        return season * weekend * (holidays ? HOLIDAY_FACTOR : 1);
+    }
+}
@@ -0,0 +1,125 @@
+package service.simulation;
+
+import Utils.DateUtils;
+import api.HotelResource;
+import model.IRoom;
+import model.RoomFilter;
+import model.RoomType;
+import service.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+// Replays a mix of traffic against HotelResource from a fixed number of threads until the duration is
+// up, each thread issuing its next call as soon as the previous one returns. Stay dates follow the
+// same seasonal DemandCurve as SyntheticHotel, so popular dates see the most searches and conflicts.
+//
+// A search asks for every free room. A booking is what a guest does: search one room type for the
+// cheapest few rooms, pick one of them and book it. A lookup lists a customer's reservations.
+public class LoadDriver {
+
+    private static final int BOOKING_CHOICES = 5;
+
+    private final HotelResource hotelResource;
+    private final List<String> customerEmails;
+    private final int horizonDays;
+
+    private final LatencyHistogram searches = new LatencyHistogram();
+    private final LatencyHistogram bookings = new LatencyHistogram();
+    private final LatencyHistogram lookups = new LatencyHistogram();
+    private final LongAdder bookingAttempts = new LongAdder();
+    private final LongAdder bookingConflicts = new LongAdder();
+    private final LongAdder soldOutSearches = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public LoadDriver(HotelResource hotelResource, List<String> customerEmails, int horizonDays) {
+        if (customerEmails.isEmpty()) {
+            throw new IllegalArgumentException("The load needs at least one customer");
+        }
+        if (horizonDays <= 0) {
+            throw new IllegalArgumentException("Booking horizon must be positive");
+        }
+        this.hotelResource = hotelResource;
+        this.customerEmails = List.copyOf(customerEmails);
+        this.horizonDays = horizonDays;
+    }
+
+    // One run per driver; the counters are not reset
+    public LoadReport run(int threads, Duration duration, TrafficMix mix, long seed) {
+        if (threads <= 0 || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Thread count and duration must be positive");
+        }
+        var demand = new DemandCurve(DateUtils.toEpochDay(LocalDate.now()), horizonDays);
+        SplittableRandom seeds = new SplittableRandom(seed);
+        long started = System.nanoTime();
+        long deadline = started + duration.toNanos();
+        try (ExecutorService workers = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("load-driver-", 0).factory())) {
+            for (int i = 0; i < threads; i++) {
+                SplittableRandom random = seeds.split();
+                workers.execute(() -> drive(random, demand, mix, deadline));
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+
+        List<LoadReport.OperationStats> operations = new ArrayList<>(3);
+        operations.add(statsOf("search", searches));
+        operations.add(statsOf("book", bookings));
+        operations.add(statsOf("lookup", lookups));
+        return new LoadReport(threads, elapsed, operations, bookingAttempts.sum(), bookingConflicts.sum(),
+                soldOutSearches.sum(), errors.sum());
+    }
+
+    private void drive(SplittableRandom random, DemandCurve demand, TrafficMix mix, long deadline) {
+        while (System.nanoTime() < deadline) {
+            int checkInDay = demand.sampleCheckInDay(random);
+            LocalDate checkIn = DateUtils.toLocalDate(checkInDay);
+            LocalDate checkOut = DateUtils.toLocalDate(checkInDay + demand.sampleNights(random));
+            String email = customerEmails.get(random.nextInt(customerEmails.size()));
+            int kind = random.nextInt(100);
+            long started = System.nanoTime();
+            try {
+                if (kind < mix.searchPercent()) {
+                    hotelResource.findARoom(checkIn, checkOut);
+                    searches.record(System.nanoTime() - started);
+                } else if (kind < mix.searchPercent() + mix.bookPercent()) {
+                    book(random, email, checkIn, checkOut);
+                    bookings.record(System.nanoTime() - started);
+                } else {
+                    hotelResource.getCustomersReservations(email);
+                    lookups.record(System.nanoTime() - started);
+                }
+            } catch (RuntimeException e) {
+                errors.increment();
+            }
+        }
+    }
+
+    private void book(SplittableRandom random, String email, LocalDate checkIn, LocalDate checkOut) {
+        RoomType roomType = RoomType.values()[random.nextInt(RoomType.values().length)];
+        var filter = new RoomFilter(Set.of(roomType), 0, Double.MAX_VALUE, null, BOOKING_CHOICES);
+        List<IRoom> cheapest = hotelResource.findRooms(filter, checkIn, checkOut);
+        if (cheapest.isEmpty()) {
+            soldOutSearches.increment();
+            return;
+        }
+        bookingAttempts.increment();
+        IRoom room = cheapest.get(random.nextInt(cheapest.size()));
+        if (hotelResource.bookARoom(email, room, checkIn, checkOut).isEmpty()) {
+            bookingConflicts.increment();
+        }
+    }
+
+    private static LoadReport.OperationStats statsOf(String name, LatencyHistogram histogram) {
+        return new LoadReport.OperationStats(name, histogram.count(), histogram.meanMicros(),
+                histogram.percentileMicros(50), histogram.percentileMicros(99), histogram.percentileMicros(99.9),
+                histogram.maxMicros());
+    }
+}
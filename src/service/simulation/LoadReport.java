@@ -0,0 +1,44 @@
+package service.simulation;
+
+import java.util.List;
+
+// Outcome of one LoadDriver run. A booking attempt is a conflict when the room chosen from the search
+// results was taken by someone else before the booking went through.
+public record LoadReport(int threads, long elapsedNanos, List<OperationStats> operations, long bookingAttempts,
+                         long bookingConflicts, long soldOutSearches, long errors) {
+
+    public record OperationStats(String name, long count, long meanMicros, long p50Micros, long p99Micros,
+                                 long p999Micros, long maxMicros) {
+    }
+
+    public LoadReport {
+        operations = List.copyOf(operations);
+    }
+
+    public long totalOperations() {
+        return operations.stream().mapToLong(OperationStats::count).sum();
+    }
+
+    public double operationsPerSecond() {
+        return elapsedNanos > 0 ? totalOperations() * 1e9 / elapsedNanos : 0;
+    }
+
+    public double conflictRatePercent() {
+        return bookingAttempts > 0 ? bookingConflicts * 100.0 / bookingAttempts : 0;
+    }
+
+    public String summary() {
+        var out = new StringBuilder(1024);
+        out.append(String.format("%d threads, %,d operations in %.1f s (%,.0f ops/s), %,d errors%n",
+                threads, totalOperations(), elapsedNanos / 1e9, operationsPerSecond(), errors));
+        out.append(String.format("%-8s %12s %9s %9s %9s %9s %9s%n",
+                "op", "count", "mean us", "p50 us", "p99 us", "p99.9 us", "max us"));
+        for (OperationStats stats : operations) {
+            out.append(String.format("%-8s %,12d %9d %9d %9d %9d %9d%n", stats.name, stats.count, stats.meanMicros,
+                    stats.p50Micros, stats.p99Micros, stats.p999Micros, stats.maxMicros));
+        }
+        out.append(String.format("bookings: %,d attempted, %,d conflicts (%.2f%%), %,d searches found nothing to book%n",
+                bookingAttempts, bookingConflicts, conflictRatePercent(), soldOutSearches));
+        return out.toString();
+    }
+}
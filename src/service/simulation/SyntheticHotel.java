@@ -0,0 +1,116 @@
+package service.simulation;
+
+import Utils.DateUtils;
+import model.Customer;
+import model.FreeRoom;
+import model.IRoom;
+import model.Reservation;
+import model.Room;
+import model.RoomType;
+import service.customer.CustomerService;
+import service.reservation.ReservationService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// Fills the services with a reproducible hotel: rooms numbered by floor with a fixed type mix and
+// log-normal prices around a per-type base, customers with generated names, and reservations whose
+// check-in days follow the seasonal DemandCurve over the booking horizon. Everything goes in through
+// the services' batch methods, so a journaling HotelStore sees a few large writes.
+public class SyntheticHotel {
+
+    private static final int BATCH_SIZE = 4096;
+    private static final int ROOMS_PER_FLOOR = 50;
+    private static final int DOUBLE_ROOM_PERCENT = 40;
+    private static final int FREE_ROOM_PERCENT = 2;
+    private static final double SINGLE_BASE_PRICE = 80;
+    private static final double DOUBLE_BASE_PRICE = 130;
+    private static final double PRICE_SPREAD = 0.25;
+    private static final int MAX_ATTEMPTS_PER_RESERVATION = 4;
+    private static final String[] FIRST_NAMES = {"Anna", "Bao", "Carlos", "Dara", "Elena", "Farid", "Giulia", "Hana",
+            "Ivan", "Julia", "Kenji", "Linh", "Mateo", "Nadia", "Omar", "Priya"};
+    private static final String[] LAST_NAMES = {"Nguyen", "Smith", "Garcia", "Tran", "Muller", "Rossi", "Kim", "Silva",
+            "Novak", "Khan", "Tanaka", "Dubois", "Le", "Cohen", "Berg", "Okafor"};
+
+    private final ReservationService reservationService;
+    private final CustomerService customerService;
+    private final int horizonDays;
+
+    public SyntheticHotel(ReservationService reservationService, CustomerService customerService, int horizonDays) {
+        if (horizonDays <= 0) {
+            throw new IllegalArgumentException("Booking horizon must be positive");
+        }
+        this.reservationService = reservationService;
+        this.customerService = customerService;
+        this.horizonDays = horizonDays;
+    }
+
+    public DatasetReport generate(int roomCount, int customerCount, int reservationCount, long seed) {
+        if (roomCount <= 0 || customerCount <= 0 || reservationCount < 0) {
+            throw new IllegalArgumentException("Room and customer counts must be positive");
+        }
+        long started = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(seed);
+
+        List<IRoom> rooms = new ArrayList<>(roomCount);
+        for (int i = 0; i < roomCount; i++) {
+            rooms.add(room(i, random));
+        }
+        for (int from = 0; from < roomCount; from += BATCH_SIZE) {
+            reservationService.addRooms(rooms.subList(from, Math.min(from + BATCH_SIZE, roomCount)));
+        }
+
+        List<Customer> customers = new ArrayList<>(customerCount);
+        for (int i = 0; i < customerCount; i++) {
+            customers.add(customer(i, random));
+        }
+        for (int from = 0; from < customerCount; from += BATCH_SIZE) {
+            customerService.addCustomers(customers.subList(from, Math.min(from + BATCH_SIZE, customerCount)));
+        }
+
+        // A conflicting stay is not retried as such; the next draw simply tries another room and date
+        var demand = new DemandCurve(DateUtils.toEpochDay(LocalDate.now()), horizonDays);
+        long booked = 0;
+        long attempts = 0;
+        long maxAttempts = (long) reservationCount * MAX_ATTEMPTS_PER_RESERVATION;
+        List<Reservation> batch = new ArrayList<>(BATCH_SIZE);
+        while (booked < reservationCount && attempts < maxAttempts) {
+            int wanted = (int) Math.min(BATCH_SIZE, Math.min(reservationCount - booked, maxAttempts - attempts));
+            batch.clear();
+            for (int i = 0; i < wanted; i++) {
+                int checkInDay = demand.sampleCheckInDay(random);
+                batch.add(new Reservation(customers.get(random.nextInt(customerCount)), rooms.get(random.nextInt(roomCount)),
+                        checkInDay, checkInDay + demand.sampleNights(random)));
+            }
+            attempts += wanted;
+            for (boolean added : reservationService.addReservations(batch)) {
+                if (added) {
+                    booked++;
+                }
+            }
+        }
+        return new DatasetReport(roomCount, customerCount, booked, attempts, System.nanoTime() - started);
+    }
+
+    private static IRoom room(int index, SplittableRandom random) {
+        String roomNumber = String.valueOf((index / ROOMS_PER_FLOOR + 1) * 100 + index % ROOMS_PER_FLOOR + 1);
+        RoomType roomType = random.nextInt(100) < DOUBLE_ROOM_PERCENT ? RoomType.DOUBLE : RoomType.SINGLE;
+        if (random.nextInt(100) < FREE_ROOM_PERCENT) {
+            return new FreeRoom(roomNumber, roomType);
+        }
+        double base = roomType == RoomType.DOUBLE ? DOUBLE_BASE_PRICE : SINGLE_BASE_PRICE;
+        double price = base * Math.exp(PRICE_SPREAD * random.nextGaussian());
+        // Priced in steps of 5
+        return new Room(roomNumber, Math.max(5, Math.round(price / 5) * 5.0), roomType);
+    }
+
+    private static Customer customer(int index, SplittableRandom random) {
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String email = (firstName + "." + lastName + index + "@example.com").toLowerCase(Locale.ROOT);
+        return new Customer(firstName, lastName, email);
+    }
+}
@@ -0,0 +1,14 @@
+package service.simulation;
+
+// Shares of searches, bookings and reservation lookups in the replayed traffic, in percent
+public record TrafficMix(int searchPercent, int bookPercent, int lookupPercent) {
+
+    public static final TrafficMix DEFAULT = new TrafficMix(80, 10, 10);
+
+    public TrafficMix {
+        if (searchPercent < 0 || bookPercent < 0 || lookupPercent < 0
+                || searchPercent + bookPercent + lookupPercent != 100) {
+            throw new IllegalArgumentException("Traffic shares must be non-negative and add up to 100");
+        }
+    }
+}
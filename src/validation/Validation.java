@@ -1,16 +1,54 @@
 package validation;
 
-import contains.PatternConstants;
-
 import java.util.*;
 
 public class Validation {
     public static void isValidEmail(final String email) {
-        if (!PatternConstants.EMAIL_PATTERN.matcher(email).matches()) {
+        if (!isEmailAddress(email)) {
             throw new IllegalArgumentException("Invalid email");
         }
     }
 
+    // Same rules as the regex ^[\w-\.]+@([\w-]+\.)+[\w-]{2,4}$, checked in one pass without one:
+    // word characters, '-' and '.' before the '@', then at least two '.'-separated labels of word
+    // characters and '-', the last one 2 to 4 characters long
+    public static boolean isEmailAddress(final CharSequence email) {
+        int at = -1;
+        int length = email.length();
+        for (int i = 0; i < length && at < 0; i++) {
+            char c = email.charAt(i);
+            if (c == '@') {
+                at = i;
+            } else if (!isWordCharacter(c) && c != '-' && c != '.') {
+                return false;
+            }
+        }
+        if (at <= 0) {
+            return false;
+        }
+        int labels = 0;
+        int labelLength = 0;
+        for (int i = at + 1; i < length; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (labelLength == 0) {
+                    return false;
+                }
+                labels++;
+                labelLength = 0;
+            } else if (isWordCharacter(c) || c == '-') {
+                labelLength++;
+            } else {
+                return false;
+            }
+        }
+        return labels >= 1 && labelLength >= 2 && labelLength <= 4;
+    }
+
+    private static boolean isWordCharacter(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_';
+    }
+
     public static boolean areDatesNotNull(Date... dates) {
         return Arrays.stream(dates).allMatch(Objects::nonNull);
     }